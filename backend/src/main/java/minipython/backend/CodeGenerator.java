@@ -0,0 +1,758 @@
+package minipython.backend;
+
+import java.util.*;
+import java.util.function.Consumer;
+
+import minipython.analysis.DepthFirstAdapter;
+import minipython.node.*;
+import minipython.semantics.*;
+
+/**
+ * The CodeGenerator translates a checked program into the source of a Java class.
+ * Top-level statements become the class's main method, global variables become
+ * static fields and every function becomes one static method per accepted
+ * number of arguments, with the missing parameters set to their default values.
+ * The names a function binds (its parameters and the names it assigns or
+ * loops over) are locals of its methods, the other names it reads are globals.
+ * The generated class only depends on the runtime support classes (MiniRuntime
+ * and MiniList), never on the parser or the checker.
+ * A function returning a call of itself becomes a loop rebinding its parameters,
+ * so that tail recursion runs in constant stack space.
+ * A loop over a list of integers or doubles reads the primitive elements, and
+ * a body that only reads the loop variable uses the primitive element itself,
+ * so that neither the loop nor its comparisons box the elements.
+ * With profiling, every statement reports its source line and every function
+ * its entry and exit to the Profiler.
+ * The functions of other modules are not compiled, so a program importing
+ * names from a module or calling through one is reported by check instead.
+ *
+ * @param className     the name of the generated class
+ * @param profile       the collapsed stacks file written by a profiled program, null for no profiling
+ */
+public class CodeGenerator {
+    // Top-level statements per generated method, keeping methods far from the bytecode size limit
+    private static final int STATEMENTS_PER_METHOD = 200;
+
+    private final String className;
+    private final String profile;
+
+    private final Set<String> globals;
+    private final Map<AFunction, Integer> functionIndices;
+    private final TailCalls tailCalls;
+    private Set<String> locals;
+    // The loop variables read from a primitive element, and the Java local holding it
+    private final Map<String, String> elements;
+    private StringBuilder out;
+    private int indent;
+    private int temps;
+    private boolean inFunction;
+    private Overload current;
+    // The Java names of the current method's parameters
+    private List<String> parameterNames;
+    private int lastLine;
+
+    public CodeGenerator(String className) {
+        this(className, null);
+    }
+
+    public CodeGenerator(String className, String profile) {
+        this.className = className;
+        this.profile = profile;
+        this.globals = new TreeSet<>();
+        this.functionIndices = new HashMap<>();
+        this.tailCalls = new TailCalls();
+        this.locals = Collections.emptySet();
+        this.elements = new HashMap<>();
+    }
+
+    /**
+     * Generates the Java source of a program
+     * @param ast the checked program's tree
+     * @return the source of the generated class
+     */
+    @SuppressWarnings("unchecked")
+    public String generate(Start ast) {
+        ast.apply(tailCalls);
+        List<PStatement> statements = new ArrayList<>();
+        LinkedHashMap<String, Overload> overloads = new LinkedHashMap<>();
+        List<AFunction> definitions = new ArrayList<>();
+        for (PCommands command : (LinkedList<PCommands>) ((AGoal) ast.getPGoal()).getCommands()) {
+            if (command instanceof AStatCommands) {
+                statements.add(((AStatCommands) command).getStatement());
+            } else {
+                // A later definition replaces the earlier ones accepting the same number of arguments
+                AFunction function = (AFunction) ((AFuncCommands) command).getFunction();
+                functionIndices.put(function, definitions.size());
+                definitions.add(function);
+                List<AMoreAssignments> parameters = parameters(function);
+                int required = parameters.size();
+                while (required > 0 && !parameters.get(required - 1).getAssignValue().isEmpty()) {
+                    required--;
+                }
+                for (int arity = required; arity <= parameters.size(); arity++) {
+                    overloads.put(name(function.getIdentifier()) + "/" + arity, new Overload(function, parameters, arity));
+                }
+            }
+        }
+
+        // Generate the methods first to collect the global variables
+        StringBuilder methods = new StringBuilder();
+        out = methods;
+        indent = 1;
+        int chunks = 0;
+        for (int start = 0; start < statements.size(); start += STATEMENTS_PER_METHOD) {
+            line("private static boolean run" + chunks++ + "() {");
+            indent++;
+            for (PStatement statement : statements.subList(start, Math.min(statements.size(), start + STATEMENTS_PER_METHOD))) {
+                statement(statement);
+            }
+            line("return false;");
+            indent--;
+            line("}");
+            line("");
+        }
+
+        inFunction = true;
+        for (Overload overload : overloads.values()) {
+            function(overload);
+        }
+
+        // Assemble the class
+        out = new StringBuilder();
+        indent = 0;
+        line("// Generated from a MiniPython program");
+        line("import minipython.runtime.*;");
+        line("");
+        line("public final class " + className + " {");
+        indent++;
+        for (String global : globals) {
+            line("private static Object v_" + global + ";");
+        }
+        line("");
+        line("public static void main(String[] args) {");
+        indent++;
+        line("try {");
+        indent++;
+        if (profile != null) {
+            line("Profiler.start(new String[] {" + String.join(", ", profiledNames(definitions)) + "}, "
+                    + lastLine + ", " + quote(profile) + ");");
+            line("try {");
+            indent++;
+        }
+        for (int i = 0; i < chunks; i++) {
+            line("if (run" + i + "()) {");
+            line("    return;");
+            line("}");
+        }
+        if (profile != null) {
+            indent--;
+            line("} finally {");
+            line("    Profiler.stop();");
+            line("}");
+        }
+        indent--;
+        line("} catch (RuntimeException | AssertionError e) {");
+        line("    System.err.println(\"Error: \" + e.getMessage() + \".\");");
+        line("    System.exit(-1);");
+        line("}");
+        indent--;
+        line("}");
+        line("");
+        out.append(methods);
+        indent--;
+        line("}");
+
+        return out.toString();
+    }
+
+    /**
+     * Reports the parts of a checked program that can not be compiled: the names
+     * imported from a module and the calls through a module
+     * @param ast          the checked program's tree
+     * @param errorHandler what is done with each error
+     */
+    public static void check(Start ast, Consumer<Diagnostic> errorHandler) {
+        ast.apply(new DepthFirstAdapter() {
+            @Override
+            public void inAFromStatement(AFromStatement node) {
+                String module = ModuleLoader.moduleName((AModuleStatement) node.getStatement());
+                errorHandler.accept(new Diagnostic(node, FirstVisitor.ERROR_TYPES.UNCOMPILABLE_IMPORT, module));
+            }
+
+            @Override
+            public void inAMethodcallArithmetics(AMethodcallArithmetics node) {
+                String module = name(node.getIdentifier());
+                errorHandler.accept(new Diagnostic(node, FirstVisitor.ERROR_TYPES.UNCOMPILABLE_IMPORT, module));
+            }
+        });
+    }
+
+    /**
+     * Generates the method of a function for one number of arguments.
+     * When the function calls itself in tail position with that same number of
+     * arguments, the body is placed in a loop the tail calls continue.
+     */
+    private void function(Overload overload) {
+        List<String> arguments = new ArrayList<>();
+        locals = new HashSet<>();
+        parameterNames = new ArrayList<>();
+        for (int i = 0; i < overload.parameters.size(); i++) {
+            // A repeated parameter name keeps its first binding, the later ones get an unused name
+            String parameter = name(overload.parameters.get(i).getIdentifier());
+            parameterNames.add(locals.add(parameter) ? "v_" + parameter : temp());
+            if (i < overload.arity) {
+                arguments.add("Object " + parameterNames.get(i));
+            }
+        }
+
+        boolean loop = false;
+        for (AReturnStatement tailCall : tailCalls.getTailCalls(overload.function)) {
+            loop |= isLoop(overload, tailCall);
+        }
+
+        line("static Object f_" + name(overload.function.getIdentifier()) + "(" + String.join(", ", arguments) + ") {");
+        indent++;
+        int index = functionIndices.get(overload.function);
+        if (profile != null) {
+            line("Profiler.enter(" + index + ");");
+            line("try {");
+            indent++;
+        }
+        if (loop) {
+            line("tail:");
+            line("while (true) {");
+            indent++;
+        }
+        for (int i = overload.arity; i < overload.parameters.size(); i++) {
+            AMoreAssignments parameter = overload.parameters.get(i);
+            AAssignValue value = (AAssignValue) parameter.getAssignValue().getFirst();
+            line("Object " + parameterNames.get(i) + " = " + expression(value.getArithmetics()) + ";");
+        }
+
+        // Declared in the loop, so that every tail call starts with unbound names like a new call
+        for (String name : boundNames(overload.function)) {
+            if (locals.add(name)) {
+                line("Object v_" + name + " = null;");
+            }
+        }
+        line("if (true) {");
+        indent++;
+        current = overload;
+        statement(overload.function.getStatement());
+        current = null;
+        indent--;
+        line("}");
+        line("return null;");
+        if (loop) {
+            indent--;
+            line("}");
+        }
+        if (profile != null) {
+            indent--;
+            line("} finally {");
+            line("    Profiler.exit(" + index + ");");
+            line("}");
+        }
+        indent--;
+        line("}");
+        line("");
+        locals = Collections.emptySet();
+    }
+
+    /**
+     * Generates a tail call as the rebinding of the parameters, all the arguments
+     * being evaluated before the first parameter changes
+     */
+    @SuppressWarnings("unchecked")
+    private void tailCall(AFunctionCall call) {
+        List<String> values = new ArrayList<>();
+        LinkedList<AArgList> argList = call.getArgList();
+        if (!argList.isEmpty()) {
+            values.add(expression(argList.getFirst().getArithmetics()));
+            for (ACommaExpr argument : (LinkedList<ACommaExpr>) argList.getFirst().getCommaExpr()) {
+                values.add(expression(argument.getArithmetics()));
+            }
+        }
+
+        List<String> temps = new ArrayList<>();
+        for (String value : values) {
+            String temp = temp();
+            temps.add(temp);
+            line("Object " + temp + " = " + value + ";");
+        }
+        for (int i = 0; i < temps.size(); i++) {
+            line(parameterNames.get(i) + " = " + temps.get(i) + ";");
+        }
+        line("continue tail;");
+    }
+
+    /**
+     * Checks that a tail call reaches the method being generated, which accepts
+     * only one number of arguments
+     */
+    @SuppressWarnings("unchecked")
+    private static boolean isLoop(Overload overload, AReturnStatement tailCall) {
+        LinkedList<AArgList> argList = TailCalls.getCall(tailCall).getArgList();
+        int count = argList.isEmpty() ? 0 : 1 + argList.getFirst().getCommaExpr().size();
+
+        return count == overload.arity;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void statement(PStatement node) {
+        if (profile != null) {
+            line("Profiler.line(" + sourceLine(node) + ");");
+        }
+
+        if (node instanceof AIfStatement) {
+            AIfStatement statement = (AIfStatement) node;
+            line("if (" + condition(statement.getComparisonLvlFour()) + ") {");
+            indent++;
+            statement(statement.getStatement());
+            indent--;
+            line("}");
+
+        } else if (node instanceof AWhileStatement) {
+            line("while (" + condition(((AWhileStatement) node).getComparisonLvlFour()) + ") {");
+            line("}");
+
+        } else if (node instanceof AForStatement) {
+            AForStatement statement = (AForStatement) node;
+            String list = temp();
+            String index = temp();
+            line("{");
+            indent++;
+            line("MiniList " + list + " = MiniRuntime.iterate(" + variable(statement.getId2()) + ");");
+            if (canUnbox(statement)) {
+                String element = temp();
+                line("if (" + list + ".getKind() == MiniList.KIND.LONG) {");
+                indent++;
+                unboxedLoop(statement, list, index, element, "long", "getLong");
+                indent--;
+                line("} else if (" + list + ".getKind() == MiniList.KIND.DOUBLE) {");
+                indent++;
+                unboxedLoop(statement, list, index, element, "double", "getDouble");
+                indent--;
+                line("} else {");
+                indent++;
+                boxedLoop(statement, list, index);
+                indent--;
+                line("}");
+            } else {
+                boxedLoop(statement, list, index);
+            }
+            indent--;
+            line("}");
+
+        } else if (node instanceof AReturnStatement) {
+            AReturnStatement statement = (AReturnStatement) node;
+            if (current != null && tailCalls.getTailCalls(current.function).contains(statement) && isLoop(current, statement)) {
+                tailCall(TailCalls.getCall(statement));
+                return;
+            }
+
+            String value = expression(statement.getArithmetics());
+            if (inFunction) {
+                line("return " + value + ";");
+            } else {
+                // A top-level return ends the program
+                line("Object " + temp() + " = " + value + ";");
+                line("if (true) {");
+                line("    return true;");
+                line("}");
+            }
+
+        } else if (node instanceof APrintStatement) {
+            APrintStatement statement = (APrintStatement) node;
+            List<String> values = new ArrayList<>();
+            values.add(expression(statement.getArithmetics()));
+            for (ACommaExpr value : (LinkedList<ACommaExpr>) statement.getCommaExpr()) {
+                values.add(expression(value.getArithmetics()));
+            }
+            line("MiniRuntime.print(" + String.join(", ", values) + ");");
+
+        } else if (node instanceof AAssignmentStatement) {
+            AAssignmentStatement statement = (AAssignmentStatement) node;
+            line(variable(statement.getIdentifier()) + " = " + expression(statement.getArithmetics()) + ";");
+
+        } else if (node instanceof AMinusassignmentStatement) {
+            AMinusassignmentStatement statement = (AMinusassignmentStatement) node;
+            String variable = variable(statement.getIdentifier());
+            line(variable + " = MiniRuntime.sub(" + variable + ", " + expression(statement.getArithmetics()) + ");");
+
+        } else if (node instanceof ADivassignmentStatement) {
+            ADivassignmentStatement statement = (ADivassignmentStatement) node;
+            String variable = variable(statement.getIdentifier());
+            line(variable + " = MiniRuntime.div(" + variable + ", " + expression(statement.getArithmetics()) + ");");
+
+        } else if (node instanceof AListassignmentStatement) {
+            AListassignmentStatement statement = (AListassignmentStatement) node;
+            line("MiniRuntime.setIndex(" + variable(statement.getIdentifier()) + ", "
+                    + expression(statement.getIndex()) + ", " + expression(statement.getValue()) + ");");
+
+        } else if (node instanceof AAssertStatement) {
+            AAssertStatement statement = (AAssertStatement) node;
+            LinkedList<ACommaExpr> message = statement.getCommaExpr();
+            line("MiniRuntime.check(" + expression(statement.getArithmetics()) + ", "
+                    + (message.isEmpty() ? "null" : expression(message.getFirst().getArithmetics())) + ");");
+            statement(statement.getStatement());
+
+        } else if (node instanceof ACallStatement) {
+            line(call((AFunctionCall) ((ACallStatement) node).getFunctionCall()) + ";");
+
+        } else if (node instanceof AFromStatement) {
+            throw new UnsupportedOperationException("Imported names can not be compiled: '" + node.toString().trim() + "'");
+
+        } else {
+            // Import statements are handled by the checker
+            line("// " + node.toString().trim());
+        }
+    }
+
+    private void boxedLoop(AForStatement statement, String list, String index) {
+        line("for (int " + index + " = 0; " + index + " < " + list + ".len(); " + index + "++) {");
+        indent++;
+        line(variable(statement.getId1()) + " = " + list + ".get(" + index + ");");
+        statement(statement.getStatement());
+        indent--;
+        line("}");
+    }
+
+    /**
+     * Generates a loop over a primitive list whose body reads the loop variable
+     * from a primitive local, boxing the last element into the variable once
+     */
+    private void unboxedLoop(AForStatement statement, String list, String index, String element, String type, String getter) {
+        String name = name(statement.getId1());
+        line(type + " " + element + " = 0;");
+        line("for (int " + index + " = 0; " + index + " < " + list + ".len(); " + index + "++) {");
+        indent++;
+        line(element + " = " + list + "." + getter + "(" + index + ");");
+        elements.put(name, element);
+        statement(statement.getStatement());
+        elements.remove(name);
+        indent--;
+        line("}");
+        line("if (" + list + ".len() > 0) {");
+        line("    " + variable(statement.getId1()) + " = " + element + ";");
+        line("}");
+    }
+
+    /**
+     * Checks whether a loop's body can read the loop variable from the primitive
+     * element: the body holds no other loop, only reads the variable, and neither
+     * stores into a list, which could move the iterated one to boxed storage, nor
+     * calls a function, which could do so too or read the variable
+     */
+    private boolean canUnbox(AForStatement statement) {
+        String name = name(statement.getId1());
+        boolean[] unboxable = { true };
+        statement.getStatement().apply(new DepthFirstAdapter() {
+            @Override
+            public void inAForStatement(AForStatement node) {
+                unboxable[0] = false;
+            }
+
+            @Override
+            public void inAListassignmentStatement(AListassignmentStatement node) {
+                unboxable[0] = false;
+            }
+
+            @Override
+            public void inAFunctionCall(AFunctionCall node) {
+                unboxable[0] = false;
+            }
+
+            @Override
+            public void inAIdentifier(AIdentifier node) {
+                if (node.getId().getText().equals(name) && !(node.parent() instanceof AIdentifierArithmetics)) {
+                    unboxable[0] = false;
+                }
+            }
+        });
+
+        return unboxable[0];
+    }
+
+    private String condition(PComparisonLvlFour node) {
+        if (node instanceof ARule1ComparisonLvlFour) {
+            ARule1ComparisonLvlFour comparison = (ARule1ComparisonLvlFour) node;
+            String l = expression(comparison.getExpr1());
+            String r = expression(comparison.getExpr2());
+            PComparisonOperators operator = comparison.getComparisonOperators();
+            if (operator instanceof AEqComparisonOperators) {
+                return "MiniRuntime.eq(" + l + ", " + r + ")";
+            } else if (operator instanceof ANoteqComparisonOperators) {
+                return "!MiniRuntime.eq(" + l + ", " + r + ")";
+            } else if (operator instanceof ALessComparisonOperators) {
+                return "MiniRuntime.compare(" + l + ", " + r + ") < 0";
+            } else if (operator instanceof AGreatComparisonOperators) {
+                return "MiniRuntime.compare(" + l + ", " + r + ") > 0";
+            } else if (operator instanceof ALesseqComparisonOperators) {
+                return "MiniRuntime.compare(" + l + ", " + r + ") <= 0";
+            } else {
+                return "MiniRuntime.compare(" + l + ", " + r + ") >= 0";
+            }
+
+        } else if (node instanceof ARule2ComparisonLvlFour) {
+            // Not a constant, so that 'while true:' does not make the following code unreachable
+            return "Boolean.TRUE";
+        } else if (node instanceof ARule3ComparisonLvlFour) {
+            return "Boolean.FALSE";
+        } else if (node instanceof ANotComparisonLvlFour) {
+            return "!(" + condition(((ANotComparisonLvlFour) node).getComparisonLvlFour()) + ")";
+        } else if (node instanceof AAndComparisonLvlFour) {
+            AAndComparisonLvlFour and = (AAndComparisonLvlFour) node;
+            return "(" + condition(and.getL()) + " && " + condition(and.getR()) + ")";
+        } else {
+            AOrComparisonLvlFour or = (AOrComparisonLvlFour) node;
+            return "(" + condition(or.getL()) + " || " + condition(or.getR()) + ")";
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private String expression(PArithmetics node) {
+        if (node instanceof APlusArithmetics) {
+            return "MiniRuntime.add(" + expression(((APlusArithmetics) node).getL()) + ", " + expression(((APlusArithmetics) node).getR()) + ")";
+        } else if (node instanceof AMinusArithmetics) {
+            return "MiniRuntime.sub(" + expression(((AMinusArithmetics) node).getL()) + ", " + expression(((AMinusArithmetics) node).getR()) + ")";
+        } else if (node instanceof AMultArithmetics) {
+            return "MiniRuntime.mul(" + expression(((AMultArithmetics) node).getL()) + ", " + expression(((AMultArithmetics) node).getR()) + ")";
+        } else if (node instanceof ADivArithmetics) {
+            return "MiniRuntime.div(" + expression(((ADivArithmetics) node).getL()) + ", " + expression(((ADivArithmetics) node).getR()) + ")";
+        } else if (node instanceof AExpArithmetics) {
+            return "MiniRuntime.pow(" + expression(((AExpArithmetics) node).getL()) + ", " + expression(((AExpArithmetics) node).getR()) + ")";
+
+        } else if (node instanceof AListcallArithmetics) {
+            AListcallArithmetics listcall = (AListcallArithmetics) node;
+            return "MiniRuntime.index(" + variable(listcall.getIdentifier()) + ", " + expression(listcall.getArithmetics()) + ")";
+        } else if (node instanceof ALenArithmetics) {
+            return "MiniRuntime.len(" + expression(((ALenArithmetics) node).getArithmetics()) + ")";
+        } else if (node instanceof AMaxminArithmetics) {
+            AMaxminArithmetics maxmin = (AMaxminArithmetics) node;
+            List<String> values = new ArrayList<>();
+            values.add(expression(maxmin.getArithmetics()));
+            for (ACommaExpr value : (LinkedList<ACommaExpr>) maxmin.getCommaExpr()) {
+                values.add(expression(value.getArithmetics()));
+            }
+            String function = maxmin.getMaxmin() instanceof AMaxMaxmin ? "max" : "min";
+            return "MiniRuntime." + function + "(" + String.join(", ", values) + ")";
+        } else if (node instanceof AListArithmetics) {
+            return list((AListArithmetics) node);
+
+        } else if (node instanceof AIdentifierArithmetics) {
+            PIdentifier identifier = ((AIdentifierArithmetics) node).getIdentifier();
+            return elements.getOrDefault(name(identifier), variable(identifier));
+        } else if (node instanceof AFunctionArithmetics) {
+            return call((AFunctionCall) ((AFunctionArithmetics) node).getFunctionCall());
+        } else if (node instanceof AArithmeticsArithmetics) {
+            return expression(((AArithmeticsArithmetics) node).getArithmetics());
+        } else if (node instanceof ANumberArithmetics) {
+            PNumber number = ((ANumberArithmetics) node).getNumber();
+            return number instanceof AIntNumber
+                ? "Long.valueOf(" + literal(number) + ")"
+                : "Double.valueOf(" + literal(number) + ")";
+        } else if (node instanceof AStrlitArithmetics) {
+            String text = ((AStrlitArithmetics) node).getString().getText();
+            return "\"" + text.substring(1, text.length() - 1) + "\"";
+        } else if (node instanceof ANoneArithmetics) {
+            return "(Object) null";
+        }
+
+        throw new UnsupportedOperationException("Method calls can not be compiled: '" + node.toString().trim() + "'");
+    }
+
+    /**
+     * Generates a list literal, using primitive storage when all the elements
+     * are proven to be integers or doubles
+     */
+    @SuppressWarnings("unchecked")
+    private String list(AListArithmetics node) {
+        AArgList elements = (AArgList) node.getArgList();
+        List<PArithmetics> values = new ArrayList<>();
+        values.add(elements.getArithmetics());
+        for (ACommaExpr element : (LinkedList<ACommaExpr>) elements.getCommaExpr()) {
+            values.add(element.getArithmetics());
+        }
+
+        FirstVisitor.VAR_TYPES type = FirstVisitor.getListElementType(node);
+        List<String> generated = new ArrayList<>();
+        for (PArithmetics value : values) {
+            if (type == FirstVisitor.VAR_TYPES.UNKNOWN) {
+                generated.add(expression(value));
+            } else if (value instanceof ANumberArithmetics) {
+                generated.add(literal(((ANumberArithmetics) value).getNumber()));
+            } else {
+                String conversion = type == FirstVisitor.VAR_TYPES.INTEGER ? "toLong" : "toDouble";
+                generated.add("MiniRuntime." + conversion + "(" + expression(value) + ")");
+            }
+        }
+
+        String factory = type == FirstVisitor.VAR_TYPES.INTEGER ? "ofLongs"
+            : type == FirstVisitor.VAR_TYPES.DOUBLE ? "ofDoubles" : "of";
+        return "MiniList." + factory + "(" + String.join(", ", generated) + ")";
+    }
+
+    @SuppressWarnings("unchecked")
+    private String call(AFunctionCall call) {
+        List<String> arguments = new ArrayList<>();
+        LinkedList<AArgList> argList = call.getArgList();
+        if (!argList.isEmpty()) {
+            arguments.add(expression(argList.getFirst().getArithmetics()));
+            for (ACommaExpr argument : (LinkedList<ACommaExpr>) argList.getFirst().getCommaExpr()) {
+                arguments.add(expression(argument.getArithmetics()));
+            }
+        }
+
+        return "f_" + name(call.getIdentifier()) + "(" + String.join(", ", arguments) + ")";
+    }
+
+    // Helper methods
+
+    /**
+     * Returns the Java name of a variable, declaring it as a global if it is not a local of the current function
+     */
+    private String variable(PIdentifier identifier) {
+        String name = name(identifier);
+        if (!locals.contains(name)) {
+            globals.add(name);
+        }
+
+        return "v_" + name;
+    }
+
+    /**
+     * Finds the names a function's body assigns or loops over, in the order of their first binding
+     */
+    private static Set<String> boundNames(AFunction function) {
+        Set<String> names = new LinkedHashSet<>();
+        function.getStatement().apply(new DepthFirstAdapter() {
+            @Override
+            public void inAAssignmentStatement(AAssignmentStatement node) {
+                names.add(name(node.getIdentifier()));
+            }
+
+            @Override
+            public void inAMinusassignmentStatement(AMinusassignmentStatement node) {
+                names.add(name(node.getIdentifier()));
+            }
+
+            @Override
+            public void inADivassignmentStatement(ADivassignmentStatement node) {
+                names.add(name(node.getIdentifier()));
+            }
+
+            @Override
+            public void inAForStatement(AForStatement node) {
+                names.add(name(node.getId1()));
+            }
+        });
+
+        return names;
+    }
+
+    private static String name(PIdentifier identifier) {
+        return ((AIdentifier) identifier).getId().getText();
+    }
+
+    private static String literal(PNumber number) {
+        if (number instanceof AIntNumber) {
+            return Long.parseLong(((AIntNumber) number).getInt().getText()) + "L";
+        }
+
+        return ((ADoubleNumber) number).getDouble().getText();
+    }
+
+    /**
+     * Lists a function's parameters, treating the first one like the rest
+     */
+    @SuppressWarnings("unchecked")
+    private static List<AMoreAssignments> parameters(AFunction function) {
+        List<AMoreAssignments> parameters = new ArrayList<>();
+        LinkedList<AArgument> arguments = function.getArgument();
+        if (!arguments.isEmpty()) {
+            AArgument first = arguments.getFirst();
+            parameters.add(new AMoreAssignments((PIdentifier) first.getIdentifier().clone(),
+                    cloneList(first.getAssignValue())));
+            parameters.addAll(first.getMoreAssignments());
+        }
+
+        return parameters;
+    }
+
+    private static List<Node> cloneList(List<?> nodes) {
+        List<Node> clones = new ArrayList<>();
+        for (Object node : nodes) {
+            clones.add((Node) ((Node) node).clone());
+        }
+
+        return clones;
+    }
+
+    /**
+     * Names the profiled functions by index, adding the line of the definitions sharing a name
+     */
+    private static List<String> profiledNames(List<AFunction> definitions) {
+        Map<String, Integer> counts = new HashMap<>();
+        for (AFunction function : definitions) {
+            counts.merge(name(function.getIdentifier()), 1, Integer::sum);
+        }
+
+        List<String> names = new ArrayList<>();
+        for (AFunction function : definitions) {
+            AIdentifier identifier = (AIdentifier) function.getIdentifier();
+            String name = identifier.getId().getText();
+            names.add(quote(counts.get(name) > 1 ? name + ":" + identifier.getId().getLine() : name));
+        }
+
+        return names;
+    }
+
+    /**
+     * Finds the source line of a statement's first token
+     */
+    private int sourceLine(Node node) {
+        int[] line = { 0 };
+        node.apply(new DepthFirstAdapter() {
+            @Override
+            public void defaultCase(Node n) {
+                if (n instanceof Token && line[0] == 0) {
+                    line[0] = ((Token) n).getLine();
+                }
+            }
+        });
+        lastLine = Math.max(lastLine, line[0]);
+
+        return line[0];
+    }
+
+    private static String quote(String text) {
+        return "\"" + text.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+    }
+
+    private String temp() {
+        return "t" + temps++;
+    }
+
+    private void line(String text) {
+        for (int i = 0; i < indent; i++) {
+            out.append("    ");
+        }
+        out.append(text).append('\n');
+    }
+
+    /**
+     * A function's definition and the number of arguments one of its methods accepts
+     */
+    private static class Overload {
+        private final AFunction function;
+        private final List<AMoreAssignments> parameters;
+        private final int arity;
+
+        private Overload(AFunction function, List<AMoreAssignments> parameters, int arity) {
+            this.function = function;
+            this.parameters = parameters;
+            this.arity = arity;
+        }
+    }
+}
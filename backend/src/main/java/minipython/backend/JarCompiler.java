@@ -0,0 +1,185 @@
+package minipython.backend;
+
+import java.io.*;
+import java.net.JarURLConnection;
+import java.nio.file.*;
+import java.util.*;
+import java.util.jar.*;
+import javax.tools.*;
+
+/**
+ * The JarCompiler compiles a checked program ahead of time into a standalone JAR.
+ * The JAR holds the generated class and the runtime support classes only, so
+ * deployed programs do not need the compiler. It is a plain JAR with a
+ * Main-Class attribute, which also makes it usable with class-data sharing
+ * (for example 'java -XX:ArchiveClassesAtExit=app.jsa -jar app.jar' once and
+ * 'java -XX:SharedArchiveFile=app.jsa -jar app.jar' afterwards).
+ */
+public class JarCompiler {
+    // The package of the runtime support, as a resource path
+    private static final String RUNTIME_PACKAGE = "minipython/runtime/";
+
+    // The classes the generated code may load at runtime, their nested classes included
+    private static final String[] RUNTIME_CLASSES = {
+        "MiniRuntime",
+        "MiniList",
+        "ScalarKernels",
+        "VectorKernels",
+        "Profiler",
+    };
+
+    /**
+     * Compiles the generated source of a program into class files
+     * @param className the generated class's name
+     * @param source    the generated class's source
+     * @param output    the directory the class files are written to
+     */
+    public static void compile(String className, String source, Path output) throws IOException {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        if (compiler == null) {
+            throw new IOException("No Java compiler available, a JDK is required");
+        }
+
+        JavaFileObject file = new SimpleJavaFileObject(
+                java.net.URI.create("string:///" + className + ".java"), JavaFileObject.Kind.SOURCE) {
+            @Override
+            public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+                return source;
+            }
+        };
+
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        List<String> options = Arrays.asList(
+            "-d", output.toString(),
+            "-cp", System.getProperty("java.class.path"),
+            "-nowarn");
+        if (!compiler.getTask(null, null, diagnostics, options, null, Collections.singletonList(file)).call()) {
+            StringBuilder message = new StringBuilder("Compilation of the generated code failed:");
+            for (javax.tools.Diagnostic<? extends JavaFileObject> diagnostic : diagnostics.getDiagnostics()) {
+                message.append("\n").append(diagnostic.getLineNumber()).append(": ").append(diagnostic.getMessage(null));
+            }
+            throw new IOException(message.toString());
+        }
+    }
+
+    /**
+     * Writes a runnable JAR containing a compiled program and the runtime support classes
+     * @param className the generated class's name
+     * @param source    the generated class's source
+     * @param jar       the JAR file to write
+     */
+    public static void write(String className, String source, Path jar) throws IOException {
+        Path classes = Files.createTempDirectory("minipython");
+        try {
+            compile(className, source, classes);
+
+            Manifest manifest = new Manifest();
+            manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+            manifest.getMainAttributes().put(Attributes.Name.MAIN_CLASS, className);
+            try (JarOutputStream out = new JarOutputStream(Files.newOutputStream(jar), manifest)) {
+                // The generated classes
+                try (DirectoryStream<Path> files = Files.newDirectoryStream(classes, "*.class")) {
+                    for (Path file : files) {
+                        out.putNextEntry(new JarEntry(file.getFileName().toString()));
+                        Files.copy(file, out);
+                        out.closeEntry();
+                    }
+                }
+
+                // The runtime support, copied from this compiler's own classpath
+                for (String runtimeClass : runtimeClassFiles()) {
+                    try (InputStream in = JarCompiler.class.getResourceAsStream("/" + runtimeClass)) {
+                        out.putNextEntry(new JarEntry(runtimeClass));
+                        in.transferTo(out);
+                        out.closeEntry();
+                    }
+                }
+            }
+        } finally {
+            delete(classes);
+        }
+    }
+
+    /**
+     * Compiles a program and runs it in this process, with the runtime support
+     * classes shared with the compiler
+     * @param className the generated class's name
+     * @param source    the generated class's source
+     * @param args      the program's arguments
+     */
+    public static void run(String className, String source, String[] args) throws Exception {
+        Path classes = Files.createTempDirectory("minipython");
+        try {
+            compile(className, source, classes);
+            try (java.net.URLClassLoader loader = new java.net.URLClassLoader(
+                    new java.net.URL[] { classes.toUri().toURL() }, JarCompiler.class.getClassLoader())) {
+                loader.loadClass(className).getMethod("main", String[].class).invoke(null, (Object) args);
+            }
+        } finally {
+            delete(classes);
+        }
+    }
+
+    private static void delete(Path directory) throws IOException {
+        try (java.util.stream.Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+        }
+    }
+
+    /**
+     * Lists the class files of the runtime support, including the nested and
+     * synthetic classes generated for them
+     * @return the class files' names
+     */
+    private static List<String> runtimeClassFiles() throws IOException {
+        List<String> classFiles = new ArrayList<>();
+        for (String runtimeClass : RUNTIME_CLASSES) {
+            java.net.URL url = JarCompiler.class.getResource("/" + RUNTIME_PACKAGE + runtimeClass + ".class");
+            if (url == null) {
+                throw new IOException("Runtime class '" + runtimeClass + "' not found");
+            }
+            classFiles.add(RUNTIME_PACKAGE + runtimeClass + ".class");
+
+            // The nested classes are next to the class, in a directory or in a JAR
+            String prefix = RUNTIME_PACKAGE + runtimeClass + "$";
+            if (url.getProtocol().equals("jar")) {
+                JarURLConnection connection = (JarURLConnection) url.openConnection();
+                connection.setUseCaches(false);
+                try (JarFile jar = connection.getJarFile()) {
+                    for (JarEntry entry : Collections.list(jar.entries())) {
+                        if (entry.getName().startsWith(prefix)) {
+                            classFiles.add(entry.getName());
+                        }
+                    }
+                }
+            } else {
+                try (DirectoryStream<Path> files = Files.newDirectoryStream(
+                        Paths.get(java.net.URI.create(url.toString())).getParent(), runtimeClass + "$*.class")) {
+                    for (Path file : files) {
+                        classFiles.add(RUNTIME_PACKAGE + file.getFileName().toString());
+                    }
+                }
+            }
+        }
+
+        return classFiles;
+    }
+
+    /**
+     * Derives a valid class name from a JAR's file name
+     * @param jar the JAR file
+     * @return the class name
+     */
+    public static String className(Path jar) {
+        String name = jar.getFileName().toString().replaceFirst("\\.jar$", "");
+        StringBuilder className = new StringBuilder();
+        for (char c : name.toCharArray()) {
+            className.append(Character.isJavaIdentifierPart(c) ? c : '_');
+        }
+        if (className.length() == 0 || !Character.isJavaIdentifierStart(className.charAt(0))) {
+            className.insert(0, 'M');
+        }
+
+        return Character.toUpperCase(className.charAt(0)) + className.substring(1);
+    }
+}
@@ -0,0 +1,84 @@
+package minipython.backend;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import minipython.parser.Parser;
+import minipython.node.*;
+import minipython.frontend.*;
+import minipython.semantics.*;
+
+class CodeGeneratorTest {
+    @Test
+    void keepsTheNamesAFunctionBindsLocal() throws Exception {
+        String program =
+            "x = 5\n"
+            + "def f(l):\n    for x in l:\n        print x\n"
+            + "def g(n):\n    x = n\n"
+            + "f([1, 2])\ng(3)\nprint x\n";
+
+        assertEquals("1\n2\n5\n", run(program));
+    }
+
+    @Test
+    void startsEveryTailCallWithUnboundLocals() throws Exception {
+        String program =
+            "def f(n, l):\n    for x in l:\n        if n > 0:\n            return f(n - 1, l)\n"
+            + "x = 7\nprint f(3, [1, 2])\nprint x\n";
+
+        assertEquals("None\n7\n", run(program));
+    }
+
+    @Test
+    void runsDeepTailRecursionInALoop() throws Exception {
+        String program =
+            "def count(n):\n    if n > 0:\n        return count(n - 1)\n"
+            + "print count(1000000)\n";
+
+        assertEquals("None\n", run(program));
+    }
+
+    @Test
+    void keepsTheFirstOfRepeatedParameters() throws Exception {
+        assertEquals("1\n1\n", run("def f(x, x=3):\n    return x\nprint f(1)\nprint f(1, 2)\n"));
+    }
+
+    @Test
+    void reportsImportedFunctions() throws Exception {
+        List<Diagnostic> diagnostics = new ArrayList<>();
+        CodeGenerator.check(parse("import m\nfrom m import f\nprint m.g(1)\n"), diagnostics::add);
+
+        assertEquals(2, diagnostics.size());
+        for (Diagnostic diagnostic : diagnostics) {
+            assertEquals(FirstVisitor.ERROR_TYPES.UNCOMPILABLE_IMPORT, diagnostic.getType());
+        }
+        assertEquals("Error[3]: Functions of module 'm' can not be compiled.", diagnostics.get(1).getMessage());
+    }
+
+    /**
+     * Compiles a program and runs it in this process
+     * @return what the program printed
+     */
+    private static String run(String program) throws Exception {
+        String source = new CodeGenerator("Generated").generate(parse(program));
+        PrintStream out = System.out;
+        ByteArrayOutputStream printed = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(printed, true, StandardCharsets.UTF_8));
+        try {
+            JarCompiler.run("Generated", source, new String[0]);
+        } finally {
+            System.setOut(out);
+        }
+
+        return printed.toString(StandardCharsets.UTF_8).replace(System.lineSeparator(), "\n");
+    }
+
+    private static Start parse(String program) throws Exception {
+        return new Parser(new InterningLexer(new PushbackReader(new StringReader(program), 1024), new SymbolPool())).parse();
+    }
+}
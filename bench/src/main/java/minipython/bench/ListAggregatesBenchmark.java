@@ -0,0 +1,56 @@
+package minipython.bench;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import minipython.runtime.ScalarKernels;
+import minipython.runtime.VectorKernels;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Compares the scalar and SIMD kernels behind max and min of primitive lists.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+public class ListAggregatesBenchmark {
+    @Param({ "1000", "1000000" })
+    private int size;
+
+    private long[] longs;
+    private double[] doubles;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        longs = new long[size];
+        doubles = new double[size];
+        for (int i = 0; i < size; i++) {
+            longs[i] = random.nextLong();
+            doubles[i] = random.nextDouble();
+        }
+    }
+
+    @Benchmark
+    public long scalarMaxLong() {
+        return ScalarKernels.maxLong(longs, size);
+    }
+
+    @Benchmark
+    public long vectorMaxLong() {
+        return VectorKernels.maxLong(longs, size);
+    }
+
+    @Benchmark
+    public double scalarMinDouble() {
+        return ScalarKernels.minDouble(doubles, size);
+    }
+
+    @Benchmark
+    public double vectorMinDouble() {
+        return VectorKernels.minDouble(doubles, size);
+    }
+}
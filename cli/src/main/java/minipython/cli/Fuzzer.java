@@ -0,0 +1,580 @@
+package minipython.cli;
+
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+
+import minipython.analysis.DepthFirstAdapter;
+import minipython.lexer.Lexer;
+import minipython.lexer.LexerException;
+import minipython.parser.Parser;
+import minipython.parser.ParserException;
+import minipython.node.*;
+import minipython.frontend.*;
+import minipython.semantics.*;
+import minipython.backend.*;
+
+/**
+ * The Fuzzer feeds generated and mutated programs to the lexer, the parser and
+ * the visitors, looking for crashes and hangs, and checks that the optimized
+ * paths agree with the reference ones:
+ * - the InterningLexer produces the same tokens as the Lexer,
+ * - the checker reports the same first diagnostic for a tree built from either,
+ * - lazy parsing reports the same diagnostic as eager parsing followed by tree shaking,
+ * - streaming reads the same commands as the parser, without crashing,
+ * - the CodeGenerator accepts every program the checker and its own check accept (and, with
+ *   --compile, its output compiles).
+ * Guidance comes from the trees' structure: an input is kept in the corpus when
+ * it reaches a new feature, a pair of parent and child node classes or a new
+ * kind of diagnostic. Every input runs with a time limit, exceeding it is
+ * reported as a hang. Each distinct finding is written to the output directory.
+ *
+ * Usage: java minipython.cli.Fuzzer [--runs n] [--seed n] [--timeout ms] [--out dir] [--compile] [seed files or directories]
+ */
+public class Fuzzer {
+    private static final String[] GENERATED_PACKAGES = {
+        "minipython.node.", "minipython.analysis.", "minipython.lexer.", "minipython.parser.",
+    };
+    private static final String[] VARIABLES = { "x", "y", "z", "l", "s" };
+    private static final String[] FUNCTIONS = { "f", "g", "h" };
+    private static final String[] DICTIONARY = {
+        "def", "if", "while", "for", "in", "return", "print", "assert", "import", "from", "as",
+        "None", "true", "false", "not", "and", "or", "len", "max", "min",
+        "+", "-", "*", "/", "**", "==", "!=", "<", ">", "<=", ">=", "=", "-=", "/=",
+        "(", ")", "[", "]", ",", ":", ".", "\t", "\n",
+        "x", "y", "f", "g", "l", "0", "1", "2.5", "\"s\"", "'a'",
+    };
+
+    // Aborts the checking at the first error instead of ending the process
+    private static final Consumer<Diagnostic> ABORT = diagnostic -> {
+        throw new Diagnosed(diagnostic.getMessage());
+    };
+
+    private final Random random;
+    private final long timeout;
+    private final boolean compile;
+    private final Path out;
+    private final List<String> corpus;
+    private final Set<String> features;
+    private final Set<String> findings;
+    private ExecutorService executor;
+
+    public Fuzzer(long seed, long timeout, boolean compile, Path out) {
+        this.random = new Random(seed);
+        this.timeout = timeout;
+        this.compile = compile;
+        this.out = out;
+        this.corpus = new ArrayList<>();
+        this.features = new HashSet<>();
+        this.findings = new HashSet<>();
+        this.executor = newExecutor();
+    }
+
+    public static void main(String[] args) throws Exception {
+        int runs = 10000;
+        long seed = System.nanoTime();
+        long timeout = 2000;
+        boolean compile = false;
+        Path out = Paths.get("fuzz-findings");
+        List<Path> seeds = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--runs":
+                    runs = Integer.parseInt(args[++i]);
+                    break;
+
+                case "--seed":
+                    seed = Long.parseLong(args[++i]);
+                    break;
+
+                case "--timeout":
+                    timeout = Long.parseLong(args[++i]);
+                    break;
+
+                case "--out":
+                    out = Paths.get(args[++i]);
+                    break;
+
+                case "--compile":
+                    compile = true;
+                    break;
+
+                default:
+                    seeds.add(Paths.get(args[i]));
+            }
+        }
+
+        Fuzzer fuzzer = new Fuzzer(seed, timeout, compile, out);
+        for (Path path : seeds) {
+            fuzzer.addSeeds(path);
+        }
+        System.out.println("Seed " + seed + ", " + fuzzer.corpus.size() + " seed inputs.");
+        fuzzer.fuzz(runs);
+        System.exit(fuzzer.findings.isEmpty() ? 0 : 1);
+    }
+
+    /**
+     * Adds a program or the programs of a directory to the corpus
+     * @param path a file or a directory
+     */
+    public void addSeeds(Path path) throws IOException {
+        if (Files.isDirectory(path)) {
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(path, "*.py")) {
+                for (Path file : files) {
+                    addSeeds(file);
+                }
+            }
+        } else {
+            String input = new String(Files.readAllBytes(path));
+            Outcome outcome = execute(input);
+            if (outcome != null) {
+                features.addAll(outcome.features);
+            }
+            corpus.add(input);
+        }
+    }
+
+    /**
+     * Runs generated and mutated inputs, keeping those reaching new features
+     * @param runs the number of inputs
+     */
+    public void fuzz(int runs) throws IOException {
+        for (int run = 1; run <= runs; run++) {
+            String input = corpus.isEmpty() || random.nextInt(4) == 0 ? generate() : mutate(corpus.get(random.nextInt(corpus.size())));
+            Outcome outcome = execute(input);
+            if (outcome == null) {
+                report("hang", "hang", "No result after " + timeout + " ms.", input);
+            } else {
+                if (outcome.problem != null) {
+                    report(outcome.kind, outcome.signature, outcome.problem, input);
+                }
+                if (features.addAll(outcome.features)) {
+                    corpus.add(input);
+                }
+            }
+
+            if (run % 1000 == 0 || run == runs) {
+                System.out.println("Run " + run + ": " + corpus.size() + " inputs, " + features.size()
+                        + " features, " + findings.size() + " findings.");
+            }
+        }
+        executor.shutdownNow();
+    }
+
+    // Execution
+
+    /**
+     * Runs an input with the time limit
+     * @return the outcome or null if the input did not finish in time
+     */
+    private Outcome execute(String input) {
+        Future<Outcome> future = executor.submit(() -> check(input));
+        try {
+            return future.get(timeout, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // The stuck thread is abandoned to a new executor
+            future.cancel(true);
+            executor.shutdownNow();
+            executor = newExecutor();
+            return null;
+        } catch (InterruptedException | ExecutionException e) {
+            Outcome outcome = new Outcome();
+            outcome.crash(e.getCause() == null ? e : e.getCause());
+            return outcome;
+        }
+    }
+
+    /**
+     * Runs the reference and the optimized paths on an input, comparing them
+     */
+    private Outcome check(String input) {
+        Outcome outcome = new Outcome();
+        try {
+            // The tokens of the interning lexer
+            List<String> tokens = tokens(new Lexer(reader(input)));
+            if (!tokens.equals(tokens(new InterningLexer(reader(input), new SymbolPool())))) {
+                return outcome.differs("tokens", "InterningLexer and Lexer produce different tokens.");
+            }
+
+            // The reference: a tree from the plain lexer, checked by the visitors
+            Start reference;
+            try {
+                reference = new Parser(new Lexer(reader(input))).parse();
+            } catch (ParserException | LexerException e) {
+                outcome.features.add(e instanceof LexerException ? "unknown token"
+                    : "syntax" + e.getMessage().replaceFirst("^\\[\\d+,\\d+\\]", ""));
+                return outcome;
+            }
+            reference.apply(new FeatureCollector(outcome.features));
+            SymbolPool symbols = new SymbolPool();
+            Hashtable<Node, FirstVisitor.VAR_TYPES> variableTypes = new Hashtable<>();
+            String expected = check(reference, symbols, variableTypes);
+            outcome.features.add(expected == null ? "checked" : kind(expected));
+
+            // The interning lexer
+            Start interned = new Parser(new InterningLexer(reader(input), symbols)).parse();
+            String actual = check(interned, symbols, new Hashtable<>());
+            if (!Objects.equals(expected, actual)) {
+                return outcome.differs("interning", "Interned tree: " + actual + " Reference: " + expected);
+            }
+
+            // Lazy parsing against eager parsing with tree shaking
+            Start shaken = new Parser(new InterningLexer(reader(input), symbols)).parse();
+            CallGraph callGraph = new CallGraph(symbols);
+            shaken.apply(callGraph);
+            callGraph.removeUnreachable(shaken);
+            String eager = check(shaken, symbols, new Hashtable<>());
+            String lazy;
+            try {
+                lazy = check(new LazyModule(input, symbols).parse(), symbols, new Hashtable<>());
+            } catch (ParserException | LexerException e) {
+                lazy = "syntax " + e.getMessage();
+            }
+            if (!Objects.equals(eager, lazy)) {
+                return outcome.differs("lazy", "Lazy parsing: " + lazy + " Eager parsing with tree shaking: " + eager);
+            }
+
+            // Streaming, whose diagnostics may differ as every command is typed with the assignments before it only
+            try (CommandReader reader = new CommandReader(new StringReader(input), symbols)) {
+                StreamingChecker checker = new StreamingChecker(symbols, null);
+                checker.setErrorHandler(ABORT);
+                checker.check(reader);
+            } catch (Diagnosed e) {
+                // Any diagnostic is accepted
+            } catch (ParserException | LexerException e) {
+                return outcome.differs("stream", "Streaming: syntax " + e.getMessage() + " The parser accepts the program.");
+            }
+
+            // The generated code of an accepted program
+            if (expected == null) {
+                try {
+                    CodeGenerator.check(reference, ABORT);
+                } catch (Diagnosed e) {
+                    return outcome;
+                }
+                String source = new CodeGenerator("Fuzzed").generate(reference);
+                if (compile) {
+                    Path classes = Files.createTempDirectory("fuzz");
+                    try {
+                        JarCompiler.compile("Fuzzed", source, classes);
+                    } catch (IOException e) {
+                        return outcome.differs("codegen", e.getMessage());
+                    } finally {
+                        try (java.util.stream.Stream<Path> files = Files.walk(classes)) {
+                            files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+                        }
+                    }
+                }
+            }
+        } catch (Throwable e) {
+            outcome.crash(e);
+        }
+
+        return outcome;
+    }
+
+    /**
+     * Applies the visitors to a tree
+     * @return the first error's message or null if there is none
+     */
+    private static String check(Start ast, SymbolPool symbols, Hashtable<Node, FirstVisitor.VAR_TYPES> variableTypes) {
+        try {
+            FirstVisitor firstVisitor = new FirstVisitor(symbols, new Hashtable<>(), new Hashtable<>(), variableTypes, new Hashtable<>());
+            firstVisitor.setErrorHandler(ABORT);
+            ast.apply(firstVisitor);
+            SecondVisitor secondVisitor = new SecondVisitor(symbols, firstVisitor.getVariables(), firstVisitor.getFunctions(),
+                    firstVisitor.getVariableTypes(), firstVisitor.getSymbolTypes());
+            secondVisitor.setErrorHandler(ABORT);
+            ast.apply(secondVisitor);
+        } catch (Diagnosed e) {
+            return e.getMessage();
+        }
+
+        return null;
+    }
+
+    private static List<String> tokens(Lexer lexer) throws IOException {
+        List<String> tokens = new ArrayList<>();
+        try {
+            for (Token token = lexer.next(); !(token instanceof EOF); token = lexer.next()) {
+                tokens.add(token.getClass().getSimpleName() + ":" + token.getText() + "@" + token.getLine() + "," + token.getPos());
+            }
+        } catch (LexerException e) {
+            tokens.add("error:" + e.getMessage());
+        }
+
+        return tokens;
+    }
+
+    // Generation
+
+    private String generate() {
+        StringBuilder program = new StringBuilder();
+        for (int i = 1 + random.nextInt(6); i > 0; i--) {
+            if (random.nextInt(3) == 0) {
+                program.append("def ").append(pick(FUNCTIONS)).append("(");
+                for (int j = random.nextInt(3); j > 0; j--) {
+                    program.append(pick(VARIABLES)).append(random.nextInt(4) == 0 ? " = " + expression(2) : "").append(j > 1 ? ", " : "");
+                }
+                // The body on the header's line, indented below it, after a blank line or not indented at all
+                program.append(pick(new String[] { "): ", "):\n    ", "):\n\n    ", "):\n" })).append(statement(1)).append("\n");
+            } else {
+                program.append(statement(0)).append("\n");
+            }
+        }
+
+        return program.toString();
+    }
+
+    private String statement(int depth) {
+        switch (random.nextInt(depth > 2 ? 8 : 12)) {
+            case 0:
+                return "print " + expression(0) + (random.nextBoolean() ? ", " + expression(0) : "");
+            case 1:
+            case 2:
+                return pick(VARIABLES) + " = " + expression(0);
+            case 3:
+                return pick(VARIABLES) + (random.nextBoolean() ? " -= " : " /= ") + expression(0);
+            case 4:
+                return pick(VARIABLES) + "[" + expression(1) + "] = " + expression(0);
+            case 5:
+                return "return " + expression(0);
+            case 6:
+                return call(0);
+            case 7:
+                return random.nextBoolean() ? "import " + pick(VARIABLES) + " as " + pick(VARIABLES)
+                    : "from " + pick(VARIABLES) + " import " + pick(FUNCTIONS);
+            case 8:
+                return "if " + condition(0) + ": " + statement(depth + 1);
+            case 9:
+                return "while " + condition(0) + ":";
+            case 10:
+                return "for " + pick(VARIABLES) + " in " + pick(VARIABLES) + ": " + statement(depth + 1);
+            default:
+                return "assert " + expression(0) + (random.nextBoolean() ? ", " + expression(0) : "") + " " + statement(depth + 1);
+        }
+    }
+
+    private String condition(int depth) {
+        switch (random.nextInt(depth > 2 ? 3 : 6)) {
+            case 0:
+                return "true";
+            case 1:
+                return "false";
+            case 2:
+                return expression(1) + " " + pick(new String[] { "==", "!=", "<", ">", "<=", ">=" }) + " " + expression(1);
+            case 3:
+                return "not " + condition(depth + 1);
+            case 4:
+                return condition(depth + 1) + " and " + condition(depth + 1);
+            default:
+                return condition(depth + 1) + " or " + condition(depth + 1);
+        }
+    }
+
+    private String expression(int depth) {
+        switch (random.nextInt(depth > 3 ? 5 : 12)) {
+            case 0:
+                return String.valueOf(random.nextInt(10));
+            case 1:
+                return random.nextInt(10) + "." + random.nextInt(10);
+            case 2:
+                return random.nextBoolean() ? "\"s\"" : "'a'";
+            case 3:
+                return "None";
+            case 4:
+                return pick(VARIABLES);
+            case 5:
+                return call(depth + 1);
+            case 6:
+                return "[" + expression(depth + 1) + (random.nextBoolean() ? ", " + expression(depth + 1) : "") + "]";
+            case 7:
+                return "len(" + expression(depth + 1) + ")";
+            case 8:
+                return (random.nextBoolean() ? "max(" : "min(") + expression(depth + 1)
+                    + (random.nextBoolean() ? ", " + expression(depth + 1) : "") + ")";
+            case 9:
+                return "(" + expression(depth + 1) + ")";
+            case 10:
+                return pick(VARIABLES) + "[" + expression(depth + 1) + "]";
+            default:
+                return expression(depth + 1) + " " + pick(new String[] { "+", "-", "*", "/", "**" }) + " " + expression(depth + 1);
+        }
+    }
+
+    private String call(int depth) {
+        StringBuilder call = new StringBuilder(pick(FUNCTIONS)).append("(");
+        for (int i = random.nextInt(3); i > 0; i--) {
+            call.append(expression(depth + 1)).append(i > 1 ? ", " : "");
+        }
+
+        return call.append(")").toString();
+    }
+
+    // Mutation
+
+    private String mutate(String input) {
+        List<String> lines = new ArrayList<>(Arrays.asList(input.split("\n", -1)));
+        for (int i = 1 + random.nextInt(3); i > 0; i--) {
+            int line = random.nextInt(lines.size());
+            String text = lines.get(line);
+            switch (random.nextInt(7)) {
+                case 0:
+                    if (lines.size() > 1) {
+                        lines.remove(line);
+                    }
+                    break;
+
+                case 1:
+                    lines.add(line, text);
+                    break;
+
+                case 2:
+                    Collections.swap(lines, line, random.nextInt(lines.size()));
+                    break;
+
+                case 3:
+                    // Splice a line of another input
+                    String[] other = corpus.get(random.nextInt(corpus.size())).split("\n");
+                    lines.add(line, other[random.nextInt(other.length)]);
+                    break;
+
+                case 4:
+                    lines.add(line, statement(0));
+                    break;
+
+                case 5:
+                    // Replace a word or a symbol
+                    String[] parts = text.split("(?<=\\W)|(?=\\W)");
+                    if (parts.length > 0) {
+                        parts[random.nextInt(parts.length)] = pick(DICTIONARY);
+                        lines.set(line, String.join("", parts));
+                    }
+                    break;
+
+                default:
+                    int position = random.nextInt(text.length() + 1);
+                    lines.set(line, text.substring(0, position) + pick(DICTIONARY) + text.substring(position));
+            }
+        }
+
+        return String.join("\n", lines);
+    }
+
+    // Helper methods
+
+    private void report(String kind, String signature, String problem, String input) throws IOException {
+        if (!findings.add(signature)) {
+            return;
+        }
+
+        Files.createDirectories(out);
+        Path file = out.resolve(kind + "-" + findings.size() + ".py");
+        Files.write(file, input.getBytes());
+        Files.write(out.resolve(kind + "-" + findings.size() + ".txt"), problem.getBytes());
+        System.out.println("Found " + kind + ": " + problem.lines().findFirst().orElse("") + " (" + file + ")");
+    }
+
+    private String pick(String[] choices) {
+        return choices[random.nextInt(choices.length)];
+    }
+
+    private static PushbackReader reader(String input) {
+        return new PushbackReader(new StringReader(input), 1024);
+    }
+
+    /**
+     * Reduces a diagnostic to its kind, without lines and names
+     */
+    private static String kind(String message) {
+        return message.replaceAll("\\[\\d+\\]", "").replaceAll("'.*'", "''");
+    }
+
+    private static ExecutorService newExecutor() {
+        return Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(null, runnable, "fuzz", 1 << 24);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Collects the pairs of parent and child node classes of a tree
+     */
+    private static class FeatureCollector extends DepthFirstAdapter {
+        private final Set<String> features;
+
+        private FeatureCollector(Set<String> features) {
+            this.features = features;
+        }
+
+        @Override
+        public void defaultIn(Node node) {
+            Node parent = node.parent();
+            features.add((parent == null ? "" : parent.getClass().getSimpleName()) + ">" + node.getClass().getSimpleName());
+        }
+    }
+
+    /**
+     * The features an input reached and the problem it revealed, if any
+     */
+    private static class Outcome {
+        private final Set<String> features = new HashSet<>();
+        private String kind;
+        private String signature;
+        private String problem;
+
+        private Outcome differs(String path, String problem) {
+            this.kind = "diff";
+            this.signature = path + ":" + kind(problem);
+            this.problem = problem;
+            return this;
+        }
+
+        private void crash(Throwable e) {
+            StringWriter trace = new StringWriter();
+            e.printStackTrace(new PrintWriter(trace));
+
+            // Crashes are told apart by their exception and the first frame in the compiler's own classes
+            String frame = "";
+            for (StackTraceElement element : e.getStackTrace()) {
+                if (isOwnClass(element.getClassName())) {
+                    frame = element.getClassName() + "." + element.getMethodName() + ":" + element.getLineNumber();
+                    break;
+                }
+            }
+            this.kind = "crash";
+            this.signature = e.getClass().getName() + "@" + frame;
+            this.problem = trace.toString();
+        }
+
+        /**
+         * Checks whether a class is written for the compiler rather than generated by SableCC or from the JDK
+         */
+        private static boolean isOwnClass(String name) {
+            if (!name.startsWith("minipython.")) {
+                return false;
+            }
+            for (String generated : GENERATED_PACKAGES) {
+                if (name.startsWith(generated)) {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+    }
+
+    /**
+     * Thrown instead of ending the process when the checker reports an error
+     */
+    private static class Diagnosed extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        private Diagnosed(String message) {
+            super(message, null, false, false);
+        }
+    }
+}
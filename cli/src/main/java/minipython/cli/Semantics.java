@@ -0,0 +1,189 @@
+package minipython.cli;
+
+import java.io.*;
+import java.nio.file.*;
+import minipython.parser.Parser;
+import minipython.node.*;
+import minipython.frontend.*;
+import minipython.semantics.*;
+import minipython.backend.*;
+import java.util.*;
+import java.util.function.Consumer;
+
+// The Semantics class calls and applies the Visitors
+public class Semantics {
+    public static void main(String[] args) {
+        try {
+            // The last argument is the file, any previous ones are options
+            String file = args[args.length - 1];
+            boolean lazy = false;
+            boolean treeShake = false;
+            boolean inline = false;
+            boolean flow = false;
+            boolean stream = false;
+            String jar = null;
+            String profile = null;
+            List<Path> searchPath = new ArrayList<>();
+            for (int i = 0; i < args.length - 1; i++) {
+                switch (args[i]) {
+                    case "--lazy":
+                        lazy = true;
+                        break;
+
+                    case "--tree-shake":
+                        treeShake = true;
+                        break;
+
+                    case "--inline":
+                        inline = true;
+                        break;
+
+                    case "--flow":
+                        flow = true;
+                        break;
+
+                    case "--stream":
+                        stream = true;
+                        break;
+
+                    case "--jar":
+                        jar = args[++i];
+                        break;
+
+                    case "--profile":
+                        profile = args[++i];
+                        break;
+
+                    case "--path":
+                        for (String directory : args[++i].split(File.pathSeparator)) {
+                            searchPath.add(Paths.get(directory));
+                        }
+                        break;
+
+                    default:
+                        System.err.println("Unknown option \'" + args[i] + "\'.");
+                        return;
+                }
+            }
+
+            // Pool interning every identifier and string literal while lexing
+            SymbolPool symbols = new SymbolPool();
+
+            // Imported modules are searched for after the program's own directory
+            Path directory = Paths.get(file).toAbsolutePath().getParent();
+            searchPath.add(0, directory);
+
+            // In streaming mode the program is read, checked and released one top-level command at a time
+            if (stream) {
+                if (lazy || treeShake || inline || flow || jar != null || profile != null) {
+                    System.err.println("Option \'--stream\' can not be combined with the options needing the whole tree.");
+                    return;
+                }
+
+                StreamingChecker checker = new StreamingChecker(symbols, new ModuleLoader(symbols, searchPath));
+                checker.setErrorHandler(diagnostic -> report(file, diagnostic, checker.isInProgram(diagnostic)));
+                try (CommandReader reader = new CommandReader(new FileReader(file), symbols)) {
+                    checker.check(reader);
+                }
+                return;
+            }
+
+            // Hash tables for storing declared variables and functions, keyed on symbol ids
+            Hashtable<Integer, Node> variables =  new Hashtable<>();
+            Hashtable<Integer, Node> functions =  new Hashtable<>();
+            Hashtable<Node, FirstVisitor.VAR_TYPES> variableTypes = new Hashtable<>();
+            Hashtable<Integer, FirstVisitor.VAR_TYPES> symbolTypes = new Hashtable<>();
+
+            // In lazy mode only the functions reachable from the top-level statements are parsed
+            Start ast;
+            if (lazy) {
+                ast = LazyModule.read(file, symbols).parse();
+            } else {
+                Parser parser =
+                    new Parser(
+                    new InterningLexer(
+                    new PushbackReader(
+                    new FileReader(file), 1024), symbols));
+                ast = parser.parse();
+            }
+
+            // Show the lines of the errors found in the program itself
+            Start program = ast;
+            Consumer<Diagnostic> errorHandler = diagnostic -> report(file, diagnostic, diagnostic.isIn(program));
+
+            // Drop the functions that are never called before checking them
+            CallGraph callGraph = new CallGraph(symbols);
+            ast.apply(callGraph);
+            if (treeShake) {
+                callGraph.removeUnreachable(ast);
+            }
+
+            // Track the type of each variable per program point instead of a single type
+            FlowTypes flowTypes = null;
+            if (flow) {
+                flowTypes = new FlowTypes(symbols, variableTypes);
+                flowTypes.analyze(ast);
+            }
+
+            // Declare the names imported from other modules
+            ModuleLoader loader = new ModuleLoader(symbols, searchPath);
+            loader.setErrorHandler(errorHandler);
+            loader.importInto(ast, variables, functions, symbolTypes);
+
+            // Apply the visitors
+            FirstVisitor firstVisitor = new FirstVisitor(symbols, variables, functions, variableTypes, symbolTypes, flowTypes);
+            firstVisitor.setErrorHandler(errorHandler);
+            ast.apply(firstVisitor);
+            SecondVisitor secondVisitor = new SecondVisitor(symbols, firstVisitor.getVariables(), firstVisitor.getFunctions(),
+                    firstVisitor.getVariableTypes(), firstVisitor.getSymbolTypes(), firstVisitor.getFlowTypes());
+            secondVisitor.setModuleLoader(loader);
+            secondVisitor.setErrorHandler(errorHandler);
+            ast.apply(secondVisitor);
+
+            // Replace the calls to small functions with their returned expression
+            if (inline) {
+                ast.apply(new Inliner(symbols, callGraph, firstVisitor));
+            }
+
+            // Report what the generated code can not hold before generating it
+            if (jar != null || profile != null) {
+                CodeGenerator.check(ast, errorHandler);
+            }
+
+            // Compile the checked program into a standalone JAR
+            if (jar != null) {
+                Path jarPath = Paths.get(jar);
+                String className = JarCompiler.className(jarPath);
+                String source = new CodeGenerator(className, profile).generate(ast);
+                JarCompiler.write(className, source, jarPath);
+
+            // Or run it with profiling right away
+            } else if (profile != null) {
+                String className = JarCompiler.className(Paths.get(file));
+                String source = new CodeGenerator(className, profile).generate(ast);
+                JarCompiler.run(className, source, new String[0]);
+            }
+
+        } catch (Exception e) {
+            System.err.println(e);
+        }
+    }
+
+    /**
+     * Prints an error and ends the program
+     * @param file       the program's file
+     * @param diagnostic the error
+     * @param inProgram  whether the error was found in the program's own file, whose lines are then shown
+     */
+    private static void report(String file, Diagnostic diagnostic, boolean inProgram) {
+        System.err.println(diagnostic.getMessage());
+        if (inProgram) {
+            try {
+                System.err.print(SourceSnippet.render(Paths.get(file), diagnostic));
+            } catch (IOException e) {
+                // The message alone is still reported
+            }
+        }
+        System.exit(-1);
+    }
+}
@@ -0,0 +1,52 @@
+package minipython.cli;
+
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FuzzerTest {
+    @Test
+    void findsNothingAroundTheCompiledSeeds() throws Exception {
+        Path directory = Files.createTempDirectory("fuzz");
+        try {
+            Path seeds = Files.createDirectory(directory.resolve("seeds"));
+            Files.writeString(seeds.resolve("locals.py"),
+                "x = 5\ndef f(l):\n    for x in l:\n        print x\nf([1, 2])\nprint x\n");
+            Files.writeString(seeds.resolve("parameters.py"),
+                "def f(x, x=3):\n    return x\nprint f(1)\n");
+            Files.writeString(seeds.resolve("inline.py"),
+                "def add(a, b):\n    return a + b\nx = 1\nprint add(x, 2)\nx = \"s\"\nprint x\n");
+
+            Path findings = directory.resolve("findings");
+            Fuzzer fuzzer = new Fuzzer(7, 10000, true, findings);
+            fuzzer.addSeeds(seeds);
+            fuzzer.fuzz(300);
+
+            assertFalse(Files.exists(findings), () -> describe(findings));
+        } finally {
+            try (java.util.stream.Stream<Path> files = Files.walk(directory)) {
+                files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+            }
+        }
+    }
+
+    /**
+     * Lists the problems the fuzzer found
+     */
+    private static String describe(Path findings) {
+        StringBuilder problems = new StringBuilder("Findings:");
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(findings, "*.txt")) {
+            for (Path file : files) {
+                problems.append("\n").append(file.getFileName()).append(": ").append(Files.readString(file));
+            }
+        } catch (IOException e) {
+            problems.append(" ").append(e.getMessage());
+        }
+
+        return problems.toString();
+    }
+}
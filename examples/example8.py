@@ -0,0 +1,8 @@
+# 8
+# Right (also with --inline, where the call is replaced while x is still a number)
+def add(a, b):
+    return a + b
+x = 1
+print add(x, 2)
+x = "s"
+print x
@@ -0,0 +1,162 @@
+package minipython.frontend;
+
+import java.io.*;
+import java.util.*;
+
+import minipython.lexer.LexerException;
+import minipython.parser.Parser;
+import minipython.parser.ParserException;
+import minipython.node.*;
+
+/**
+ * Reads a program one top-level command at a time.
+ * A command starts at a line beginning with anything but a blank or a
+ * comment and owns every following line that is indented, blank or a
+ * comment. Only the lines of the current command are held in
+ * memory, and each command is parsed on its own with the token lines it has
+ * in the whole file. A command that is cut short by the next unindented line,
+ * or that is followed by a line that can not start a command, is parsed again
+ * together with the following commands. Their number doubles at every try, so
+ * that a command spanning many of them is parsed a logarithmic number of
+ * times, and the first try adds a single one, so that a syntax error at the
+ * first line that can not continue the command is reported as soon as that
+ * line is read.
+ *
+ * @param in      the program's source
+ * @param symbols the pool the identifiers are interned into
+ */
+public class CommandReader implements Closeable {
+    // The keywords that begin a command, every other one continues an expression or a statement
+    private static final Set<String> COMMAND_KEYWORDS = new HashSet<>(Arrays.asList(
+        "def", "if", "while", "for", "return", "print", "assert", "import", "from"));
+    private static final Set<String> KEYWORDS = new HashSet<>(Arrays.asList(
+        "dict", "else", "in", "true", "false", "len", "max", "min", "as", "not", "and", "or", "None"));
+
+    private final BufferedReader in;
+    private final SymbolPool symbols;
+    private final StringBuilder text;
+
+    // The first line of the following command, read ahead, and its line number
+    private String pending;
+    private int pendingLine;
+
+    public CommandReader(Reader in, SymbolPool symbols) throws IOException {
+        this.in = new BufferedReader(in);
+        this.symbols = symbols;
+        this.text = new StringBuilder();
+        this.pending = this.in.readLine();
+        this.pendingLine = 1;
+    }
+
+    /**
+     * Parses the next command
+     * @return a tree holding the command, or null at the end of the program
+     */
+    public Start next() throws IOException, LexerException, ParserException {
+        if (pending == null) {
+            return null;
+        }
+
+        text.setLength(0);
+        int firstLine = pendingLine;
+        readCommand();
+        for (int commands = 1; ; commands *= 2) {
+            try {
+                Start tree = parse(firstLine);
+                if (pending == null || startsCommand(pending)) {
+                    return tree;
+                }
+            } catch (ParserException e) {
+                // The command may go on past the next unindented line, an error before the end of the text is final
+                if (!(e.getToken() instanceof EOF) || pending == null) {
+                    throw e;
+                }
+            }
+
+            for (int i = 0; i < commands && pending != null; i++) {
+                readCommand();
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    // Helper methods
+
+    /**
+     * Appends the pending line and its continuation lines to the text
+     */
+    private void readCommand() throws IOException {
+        do {
+            text.append(pending).append('\n');
+            pending = in.readLine();
+            pendingLine++;
+        } while (pending != null && isContinuation(pending));
+    }
+
+    private static boolean isContinuation(String line) {
+        if (line.isEmpty()) {
+            return true;
+        }
+
+        char first = line.charAt(0);
+        return first == ' ' || first == '\t' || first == '\r' || first == '#';
+    }
+
+    /**
+     * Checks whether a line that is not a continuation line begins with a token that can start a command
+     */
+    private static boolean startsCommand(String line) {
+        int end = 0;
+        while (end < line.length() && (Character.isLetterOrDigit(line.charAt(end)) || line.charAt(end) == '_')) {
+            end++;
+        }
+
+        String word = line.substring(0, end);
+        if (end == 0 || Character.isDigit(word.charAt(0))) {
+            return false;
+        }
+
+        return COMMAND_KEYWORDS.contains(word) || !KEYWORDS.contains(word);
+    }
+
+    private Start parse(int firstLine) throws IOException, LexerException, ParserException {
+        int offset = firstLine - 1;
+        InterningLexer lexer = new InterningLexer(new PushbackReader(new StringReader(text.toString()), 1024), symbols) {
+            @Override
+            protected void filter() throws LexerException, IOException {
+                // String literals are not interned, so the pool only grows with the program's names
+                if (!(token instanceof TString)) {
+                    super.filter();
+                }
+                token.setLine(token.getLine() + offset);
+            }
+        };
+
+        try {
+            return new Parser(lexer).parse();
+        } catch (LexerException e) {
+            // The lexer counts its lines from the start of the command
+            throw new LexerException(shiftLine(e.getMessage(), offset));
+        }
+    }
+
+    /**
+     * Moves the line of a "[line,pos] ..." message by an offset
+     */
+    private static String shiftLine(String message, int offset) {
+        int comma = message.indexOf(',');
+        if (!message.startsWith("[") || comma < 0) {
+            return message;
+        }
+
+        try {
+            return "[" + (Integer.parseInt(message.substring(1, comma)) + offset) + message.substring(comma);
+        } catch (NumberFormatException e) {
+            return message;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package minipython.frontend;
+
+import java.io.*;
+
+import minipython.lexer.Lexer;
+import minipython.lexer.LexerException;
+import minipython.node.*;
+
+/**
+ * Lexer that interns the text of every identifier and string literal
+ * into a SymbolPool as soon as the token is read
+ * 
+ * @param in      the source reader
+ * @param symbols the pool shared by the rest of the pipeline
+ */
+public class InterningLexer extends Lexer {
+    private final SymbolPool symbols;
+
+    public InterningLexer(PushbackReader in, SymbolPool symbols) {
+        super(in);
+        this.symbols = symbols;
+    }
+
+    @Override
+    protected void filter() throws LexerException, IOException {
+        if (token instanceof TId) {
+            // Keep the id on the token and replace its own copy of the text with the pool's canonical instance
+            token.setText(symbols.name(symbols.symbol((TId) token)));
+        } else if (token instanceof TString) {
+            token.setText(symbols.name(symbols.intern(token.getText())));
+        }
+    }
+
+    public SymbolPool getSymbols() {
+        return symbols;
+    }
+}
@@ -0,0 +1,592 @@
+package minipython.frontend;
+
+import java.io.*;
+import java.util.*;
+
+import minipython.analysis.DepthFirstAdapter;
+import minipython.lexer.Lexer;
+import minipython.lexer.LexerException;
+import minipython.parser.Parser;
+import minipython.node.*;
+
+/**
+ * A module whose function bodies are parsed on demand.
+ * A scan over the tokens of every line starting with 'def' records the
+ * character range of the function it starts, the remaining top-level
+ * commands are parsed eagerly and each function is only turned into a
+ * subtree once it is requested.
+ */
+public class LazyModule {
+    private final String source;
+    private final SymbolPool symbols;
+    private final List<Range> ranges;
+    private final Hashtable<String, List<Range>> rangesByName;
+
+    // The functions called by the default values of the scanned functions
+    private final Set<String> defaultCalls;
+
+    // The offset of the first character of every line
+    private int[] lineStarts;
+
+    // Whether a scanned function could not be read, so the module is parsed as a whole
+    private boolean eager;
+
+    public LazyModule(String source, SymbolPool symbols) {
+        this.source = source;
+        this.symbols = symbols;
+        this.ranges = new ArrayList<>();
+        this.rangesByName = new Hashtable<>();
+        this.defaultCalls = new HashSet<>();
+        scan();
+    }
+
+    /**
+     * Reads a whole source file and scans its top-level functions
+     * @param path    the file's path
+     * @param symbols the pool the module's identifiers are interned into
+     * @return the scanned module
+     */
+    public static LazyModule read(String path, SymbolPool symbols) throws IOException {
+        StringBuilder builder = new StringBuilder();
+        try (Reader in = new BufferedReader(new FileReader(path))) {
+            char[] buffer = new char[8192];
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                builder.append(buffer, 0, read);
+            }
+        }
+
+        return new LazyModule(builder.toString(), symbols);
+    }
+
+    /**
+     * Parses the top-level statements together with every function that
+     * can be called from them, directly or through other functions
+     * @return the tree with the functions placed in source order
+     */
+    @SuppressWarnings("unchecked")
+    public Start parse() throws Exception {
+        if (eager) {
+            // The parser reports the error the scan ran into
+            return newParser(new SourceReader(source, 0, source.length(), 0, null)).parse();
+        }
+
+        Start ast = newParser(new SourceReader(source, 0, source.length(), 0, ranges)).parse();
+        AGoal goal = (AGoal) ast.getPGoal();
+
+        // Functions that do not start a line are parsed with the top-level statements
+        List<PCommands> kept = new ArrayList<>();
+        Hashtable<String, List<AFuncCommands>> parsed = new Hashtable<>();
+        Deque<String> pending = new ArrayDeque<>(defaultCalls);
+        for (PCommands command : (LinkedList<PCommands>) goal.getCommands()) {
+            if (command instanceof AFuncCommands) {
+                AFunction function = (AFunction) ((AFuncCommands) command).getFunction();
+                String name = ((AIdentifier) function.getIdentifier()).getId().getText();
+                parsed.computeIfAbsent(name, k -> new ArrayList<>()).add((AFuncCommands) command);
+                for (Object argument : function.getArgument()) {
+                    pending.addAll(collectCalls((Node) argument));
+                }
+            } else {
+                pending.addAll(collectCalls(command));
+                kept.add(command);
+            }
+        }
+
+        // Follow the calls starting from the top-level statements
+        Set<String> visited = new HashSet<>();
+        while (!pending.isEmpty()) {
+            String name = pending.pop();
+            if (!visited.add(name)) {
+                continue;
+            }
+
+            for (Range range : rangesByName.getOrDefault(name, Collections.emptyList())) {
+                AFunction function = function(range);
+                pending.addAll(collectCalls(function));
+                kept.add(new AFuncCommands(function));
+            }
+            for (AFuncCommands command : parsed.getOrDefault(name, Collections.emptyList())) {
+                pending.addAll(collectCalls(command));
+                kept.add(command);
+            }
+        }
+
+        // Put the functions back among the statements by the position of their first token
+        Hashtable<PCommands, Long> positions = new Hashtable<>();
+        for (PCommands command : kept) {
+            positions.put(command, position(command));
+        }
+        kept.sort((a, b) -> Long.compare(positions.get(a), positions.get(b)));
+
+        goal.setCommands(kept);
+        return ast;
+    }
+
+    /**
+     * Returns the definitions of a function, parsing them if needed
+     * @param name the function's name
+     * @return the function's definitions in source order
+     */
+    public List<AFunction> getFunctions(String name) throws Exception {
+        List<AFunction> functions = new ArrayList<>();
+        for (Range range : rangesByName.getOrDefault(name, Collections.emptyList())) {
+            functions.add(function(range));
+        }
+
+        return functions;
+    }
+
+    public Set<String> getFunctionNames() {
+        return rangesByName.keySet();
+    }
+
+    // Helper methods
+
+    /**
+     * Records the range of every function starting a line.
+     * A function's body is a single statement, so its range ends at the last
+     * token of that statement, wherever the lines around it are indented, and
+     * the commands following it on its lines are left to the top level.
+     */
+    private void scan() {
+        lineStarts = lineStarts(source);
+        int line = 1;
+        while (line <= lineStarts.length) {
+            int start = lineStarts[line - 1];
+            if (!isDefinition(start)) {
+                line++;
+                continue;
+            }
+
+            Range range;
+            try {
+                range = new FunctionScanner(start, line).scan();
+            } catch (LexerException | IOException | ScanException e) {
+                eager = true;
+                return;
+            }
+            ranges.add(range);
+            rangesByName.computeIfAbsent(range.name, k -> new ArrayList<>()).add(range);
+
+            // Go on with the line after the function's last token
+            line = lineOf(range.end - 1) + 1;
+        }
+    }
+
+    private boolean isDefinition(int start) {
+        return source.startsWith("def", start) && start + 3 < source.length()
+            && Character.isWhitespace(source.charAt(start + 3));
+    }
+
+    /**
+     * Finds the offsets at which the lines start, ending them the way the lexer does
+     */
+    private static int[] lineStarts(String source) {
+        List<Integer> starts = new ArrayList<>();
+        starts.add(0);
+        for (int i = 0; i < source.length(); i++) {
+            char c = source.charAt(i);
+            if (c == '\r' && i + 1 < source.length() && source.charAt(i + 1) == '\n') {
+                i++;
+            }
+            if ((c == '\r' || c == '\n') && i + 1 < source.length()) {
+                starts.add(i + 1);
+            }
+        }
+
+        int[] lineStarts = new int[starts.size()];
+        for (int i = 0; i < lineStarts.length; i++) {
+            lineStarts[i] = starts.get(i);
+        }
+        return lineStarts;
+    }
+
+    /**
+     * Finds the line holding an offset
+     */
+    private int lineOf(int offset) {
+        int index = Arrays.binarySearch(lineStarts, offset);
+        return index >= 0 ? index + 1 : -index - 1;
+    }
+
+    /**
+     * Parses a function's range once and caches the resulting subtree
+     */
+    private AFunction function(Range range) throws Exception {
+        if (range.function == null) {
+            Start ast = newParser(new SourceReader(source, range.start, range.end, range.line - 1, null)).parse();
+            for (Object command : ((AGoal) ast.getPGoal()).getCommands()) {
+                if (command instanceof AFuncCommands) {
+                    range.function = (AFunction) ((AFuncCommands) command).getFunction();
+                    break;
+                }
+            }
+        }
+
+        return range.function;
+    }
+
+    private Parser newParser(Reader reader) {
+        return new Parser(new InterningLexer(new PushbackReader(reader, 1024), symbols));
+    }
+
+    /**
+     * Finds the names of all the functions called inside a subtree
+     */
+    private static Set<String> collectCalls(Node node) {
+        Set<String> names = new HashSet<>();
+        node.apply(new DepthFirstAdapter() {
+            @Override
+            public void inAFunctionCall(AFunctionCall call) {
+                names.add(((AIdentifier) call.getIdentifier()).getId().getText());
+            }
+        });
+
+        return names;
+    }
+
+    /**
+     * Finds the line and column of the first token of a subtree, as one comparable number
+     */
+    private static long position(Node node) {
+        long[] position = { Long.MAX_VALUE };
+        node.apply(new DepthFirstAdapter() {
+            @Override
+            public void defaultCase(Node n) {
+                if (n instanceof Token && position[0] == Long.MAX_VALUE) {
+                    position[0] = ((long) ((Token) n).getLine() << 32) | ((Token) n).getPos();
+                }
+            }
+        });
+
+        return position[0];
+    }
+
+    /**
+     * The character range of a function and its parsed subtree
+     */
+    private static class Range {
+        private final String name;
+        private final int start;
+        private final int end;
+        private final int line;
+        private AFunction function;
+
+        private Range(String name, int start, int end, int line) {
+            this.name = name;
+            this.start = start;
+            this.end = end;
+            this.line = line;
+        }
+    }
+
+    /**
+     * Follows the grammar over the tokens of a function without building a
+     * tree, to find the token its body ends at. Calls in the default values
+     * of the arguments are recorded, as they are made when the function is
+     * defined.
+     */
+    private class FunctionScanner {
+        private final int start;
+        private final int line;
+        private final Lexer lexer;
+        private final Deque<Token> ahead;
+        private Token last;
+        private boolean defaults;
+
+        private FunctionScanner(int start, int line) {
+            this.start = start;
+            this.line = line;
+            this.lexer = new Lexer(new PushbackReader(new SourceReader(source, start, source.length(), 0, null), 1024));
+            this.ahead = new ArrayDeque<>();
+        }
+
+        private Range scan() throws LexerException, IOException, ScanException {
+            expect(TDef.class);
+            String name = expect(TId.class).getText();
+            expect(TLPar.class);
+            if (is(TId.class)) {
+                argument();
+                while (accept(TComma.class)) {
+                    argument();
+                }
+            }
+            expect(TRPar.class);
+            expect(TSemi.class);
+            statement();
+
+            // The token lines count from the function's first line
+            int end = lineStarts[line + last.getLine() - 2] + last.getPos() - 1 + last.getText().length();
+            return new Range(name, start, end, line);
+        }
+
+        private void argument() throws LexerException, IOException, ScanException {
+            expect(TId.class);
+            if (accept(TAssign.class)) {
+                defaults = true;
+                if (is(TId.class)) {
+                    expect(TId.class);
+                    expect(TDott.class);
+                    call();
+                } else if (!accept(TInt.class) && !accept(TDouble.class) && !accept(TString.class) && !accept(TNone.class)) {
+                    throw new ScanException();
+                }
+                defaults = false;
+            }
+        }
+
+        private void statement() throws LexerException, IOException, ScanException {
+            if (is(TImport.class) || is(TFrom.class)) {
+                importStatement();
+                return;
+            }
+            if (is(TId.class) && is(1, TLPar.class)) {
+                call();
+                return;
+            }
+
+            while (accept(TTab.class)) {
+                // Tabs may only precede the other statements
+            }
+            if (accept(TIf.class)) {
+                condition();
+                expect(TSemi.class);
+                statement();
+            } else if (accept(TWhile.class)) {
+                condition();
+                expect(TSemi.class);
+            } else if (accept(TFor.class)) {
+                expect(TId.class);
+                expect(TIn.class);
+                expect(TId.class);
+                expect(TSemi.class);
+                statement();
+            } else if (accept(TReturn.class)) {
+                arithmetics();
+            } else if (accept(TPrint.class)) {
+                list();
+            } else if (accept(TAssert.class)) {
+                arithmetics();
+                if (accept(TComma.class)) {
+                    arithmetics();
+                }
+                statement();
+            } else {
+                expect(TId.class);
+                if (accept(TLBr.class)) {
+                    arithmetics();
+                    expect(TRBr.class);
+                    expect(TAssign.class);
+                } else if (!accept(TAssign.class) && !accept(TMinusassign.class) && !accept(TDivassign.class)) {
+                    throw new ScanException();
+                }
+                arithmetics();
+            }
+        }
+
+        private void importStatement() throws LexerException, IOException, ScanException {
+            if (accept(TImport.class)) {
+                do {
+                    module();
+                    alias();
+                } while (accept(TComma.class));
+            } else {
+                expect(TFrom.class);
+                module();
+                expect(TImport.class);
+                do {
+                    expect(TId.class);
+                    alias();
+                } while (accept(TComma.class));
+            }
+        }
+
+        private void module() throws LexerException, IOException, ScanException {
+            do {
+                expect(TId.class);
+            } while (accept(TDott.class));
+        }
+
+        private void alias() throws LexerException, IOException, ScanException {
+            if (accept(TAs.class)) {
+                expect(TId.class);
+            }
+        }
+
+        private void condition() throws LexerException, IOException, ScanException {
+            do {
+                do {
+                    while (accept(TNot.class)) {
+                        // Negations of a comparison
+                    }
+                    if (!accept(TTrue.class) && !accept(TFalse.class)) {
+                        arithmetics();
+                        if (!accept(TEq.class) && !accept(TNoteq.class) && !accept(TLess.class)
+                                && !accept(TGreat.class) && !accept(TLesseq.class) && !accept(TGreateq.class)) {
+                            throw new ScanException();
+                        }
+                        arithmetics();
+                    }
+                } while (accept(TAnd.class));
+            } while (accept(TOr.class));
+        }
+
+        private void arithmetics() throws LexerException, IOException, ScanException {
+            do {
+                do {
+                    do {
+                        expression();
+                    } while (accept(TExp.class));
+                } while (accept(TMult.class) || accept(TDiv.class));
+            } while (accept(TPlus.class) || accept(TMinus.class));
+        }
+
+        private void expression() throws LexerException, IOException, ScanException {
+            if (accept(TLen.class)) {
+                expect(TLPar.class);
+                arithmetics();
+                expect(TRPar.class);
+            } else if (accept(TMax.class) || accept(TMin.class)) {
+                expect(TLPar.class);
+                list();
+                expect(TRPar.class);
+            } else if (accept(TLBr.class)) {
+                list();
+                expect(TRBr.class);
+            } else if (accept(TLPar.class)) {
+                arithmetics();
+                expect(TRPar.class);
+            } else if (is(TId.class) && is(1, TLPar.class)) {
+                call();
+            } else if (accept(TId.class)) {
+                if (accept(TDott.class)) {
+                    call();
+                } else if (accept(TLBr.class)) {
+                    arithmetics();
+                    expect(TRBr.class);
+                }
+            } else if (!accept(TInt.class) && !accept(TDouble.class) && !accept(TString.class) && !accept(TNone.class)) {
+                throw new ScanException();
+            }
+        }
+
+        private void call() throws LexerException, IOException, ScanException {
+            Token name = expect(TId.class);
+            if (defaults) {
+                defaultCalls.add(name.getText());
+            }
+            expect(TLPar.class);
+            if (!is(TRPar.class)) {
+                list();
+            }
+            expect(TRPar.class);
+        }
+
+        private void list() throws LexerException, IOException, ScanException {
+            do {
+                arithmetics();
+            } while (accept(TComma.class));
+        }
+
+        // Token helpers
+
+        private boolean is(Class<? extends Token> type) throws LexerException, IOException {
+            return is(0, type);
+        }
+
+        private boolean is(int index, Class<? extends Token> type) throws LexerException, IOException {
+            while (ahead.size() <= index) {
+                Token token = lexer.next();
+                if (!(token instanceof TBlank) && !(token instanceof TLineComment)) {
+                    ahead.addLast(token);
+                }
+            }
+
+            Iterator<Token> tokens = ahead.iterator();
+            for (int i = 0; i < index; i++) {
+                tokens.next();
+            }
+            return type.isInstance(tokens.next());
+        }
+
+        private boolean accept(Class<? extends Token> type) throws LexerException, IOException {
+            if (!is(type)) {
+                return false;
+            }
+
+            last = ahead.removeFirst();
+            return true;
+        }
+
+        private Token expect(Class<? extends Token> type) throws LexerException, IOException, ScanException {
+            if (!accept(type)) {
+                throw new ScanException();
+            }
+
+            return last;
+        }
+    }
+
+    /**
+     * Thrown when the tokens after a 'def' do not form a function
+     */
+    private static class ScanException extends Exception {
+        private static final long serialVersionUID = 1L;
+
+        private ScanException() {
+            super(null, null, false, false);
+        }
+    }
+
+    /**
+     * Reads a range of the source without copying it.
+     * Leading newlines keep the token lines of a function identical to those
+     * of the whole file and masked ranges are read as spaces.
+     */
+    private static class SourceReader extends Reader {
+        private final String source;
+        private final int end;
+        private final List<Range> masked;
+        private int position;
+        private int newlines;
+        private int mask;
+
+        private SourceReader(String source, int start, int end, int newlines, List<Range> masked) {
+            this.source = source;
+            this.position = start;
+            this.end = end;
+            this.newlines = newlines;
+            this.masked = masked == null ? Collections.emptyList() : masked;
+        }
+
+        @Override
+        public int read(char[] buffer, int offset, int length) {
+            if (newlines == 0 && position >= end) {
+                return -1;
+            }
+
+            int count = 0;
+            while (count < length && newlines > 0) {
+                buffer[offset + count++] = '\n';
+                newlines--;
+            }
+            while (count < length && position < end) {
+                while (mask < masked.size() && masked.get(mask).end <= position) {
+                    mask++;
+                }
+
+                char c = source.charAt(position++);
+                if (mask < masked.size() && masked.get(mask).start < position && c != '\n' && c != '\r') {
+                    c = ' ';
+                }
+                buffer[offset + count++] = c;
+            }
+
+            return count;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
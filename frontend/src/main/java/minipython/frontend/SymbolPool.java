@@ -0,0 +1,120 @@
+package minipython.frontend;
+
+import java.util.*;
+
+import minipython.node.*;
+
+/**
+ * Interns every distinct identifier and string literal into a compact integer id.
+ * Tokens sharing a name also share a single String instance, so the symbol
+ * and type tables can be keyed on the ids instead of the names.
+ * An identifier token keeps its id once it is known, and the ids are handed
+ * out as a single boxed instance each, so looking up a name in the tables
+ * neither hashes its text nor allocates.
+ */
+public class SymbolPool {
+    private final HashMap<String, Integer> ids;
+    private final ArrayList<String> names;
+
+    public SymbolPool() {
+        ids = new HashMap<>();
+        names = new ArrayList<>();
+    }
+
+    /**
+     * Returns the id of a name, assigning a new one if it has not been seen before
+     * @param name the identifier or string literal
+     * @return the name's id
+     */
+    public int intern(String name) {
+        return box(name);
+    }
+
+    /**
+     * Returns the id of an identifier, read from its token after the first time
+     * @param identifier the identifier
+     * @return the identifier's id
+     */
+    public Integer symbol(PIdentifier identifier) {
+        return symbol(((AIdentifier) identifier).getId());
+    }
+
+    /**
+     * Returns the id of an identifier token, interning its text the first time only
+     * @param token the token
+     * @return the token's id
+     */
+    public Integer symbol(TId token) {
+        Integer id = token.getSymbol(this);
+        if (id == null) {
+            id = box(token.getText());
+            token.setSymbol(this, id);
+        }
+
+        return id;
+    }
+
+    /**
+     * Returns the id of the function a call names, which for a call through a
+     * module such as 'm.f(1)' is the qualified name 'm.f'
+     * @param call the call
+     * @return the called name's id
+     */
+    public Integer callee(AFunctionCall call) {
+        if (call.parent() instanceof AMethodcallArithmetics) {
+            String module = ((AIdentifier) ((AMethodcallArithmetics) call.parent()).getIdentifier()).getId().getText();
+            return box(qualify(module, ((AIdentifier) call.getIdentifier()).getId().getText()));
+        }
+
+        return symbol(call.getIdentifier());
+    }
+
+    /**
+     * Builds the name under which a module's function is reached through the module's alias
+     * @param module the module's alias
+     * @param name   the function's name
+     * @return the qualified name
+     */
+    public static String qualify(String module, String name) {
+        return module + "." + name;
+    }
+
+    /**
+     * Returns the id of a name without interning it
+     * @param name the identifier or string literal
+     * @return the name's id or -1 if the name is unknown
+     */
+    public synchronized int id(String name) {
+        Integer id = ids.get(name);
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * Returns the canonical instance of an interned name
+     * @param id the name's id
+     * @return the name
+     */
+    public synchronized String name(int id) {
+        return names.get(id);
+    }
+
+    public synchronized int size() {
+        return names.size();
+    }
+
+    // Helper methods
+
+    /**
+     * Interns a name, returning the id instance stored in the table
+     */
+    private synchronized Integer box(String name) {
+        Integer id = ids.get(name);
+        if (id == null) {
+            id = names.size();
+            ids.put(name, id);
+            names.add(name);
+        }
+
+        return id;
+    }
+}
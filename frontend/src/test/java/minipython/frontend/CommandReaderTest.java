@@ -0,0 +1,86 @@
+package minipython.frontend;
+
+import java.io.*;
+import java.util.*;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import minipython.parser.ParserException;
+import minipython.node.*;
+
+class CommandReaderTest {
+    @Test
+    void readsOneCommandAtATime() throws Exception {
+        List<PCommands> commands = readAll("x = 1\ndef f(a):\n    return a\n\n# comment\nprint f(x)\n");
+
+        assertEquals(3, commands.size());
+        assertTrue(commands.get(1) instanceof AFuncCommands);
+        assertEquals(6, firstLine(commands.get(2)));
+    }
+
+    @Test
+    void joinsACommandGoingOnOverAnUnindentedLine() throws Exception {
+        List<PCommands> commands = readAll("x = 1\n+ 2\nprint x\n");
+
+        assertEquals(2, commands.size());
+        AAssignmentStatement assignment = (AAssignmentStatement) ((AStatCommands) commands.get(0)).getStatement();
+        assertTrue(assignment.getArithmetics() instanceof APlusArithmetics);
+        assertEquals(3, firstLine(commands.get(1)));
+    }
+
+    // The lines are read again in a number of tries that doubles, the last one reaching the following command
+    @Test
+    void joinsACommandSpanningManyLines() throws Exception {
+        StringBuilder program = new StringBuilder("print 1\n");
+        for (int i = 0; i < 100; i++) {
+            program.append("+ 1\n");
+        }
+        program.append("print 2\n");
+        List<PCommands> commands = readAll(program.toString());
+
+        assertEquals(2, commands.size());
+        assertEquals(101, commands.get(0).toString().trim().split(" ").length);
+        assertEquals(102, firstLine(commands.get(1)));
+    }
+
+    @Test
+    void reportsASyntaxErrorAtItsLineInTheFile() throws Exception {
+        try (CommandReader reader = new CommandReader(new StringReader("x = 1\ny = = 2\nprint y\n"), new SymbolPool())) {
+            assertNotNull(reader.next());
+            ParserException e = assertThrows(ParserException.class, reader::next);
+            assertEquals(2, e.getToken().getLine());
+        }
+    }
+
+    /**
+     * Reads a program, a tree holding several commands when a command was read together with the following ones
+     * @return the commands of all the trees read
+     */
+    @SuppressWarnings("unchecked")
+    private static List<PCommands> readAll(String program) throws Exception {
+        List<PCommands> commands = new ArrayList<>();
+        try (CommandReader reader = new CommandReader(new StringReader(program), new SymbolPool())) {
+            for (Start tree = reader.next(); tree != null; tree = reader.next()) {
+                commands.addAll(((AGoal) tree.getPGoal()).getCommands());
+            }
+        }
+
+        return commands;
+    }
+
+    private static int firstLine(Node tree) {
+        int[] line = { 0 };
+        tree.apply(new minipython.analysis.DepthFirstAdapter() {
+            @Override
+            public void defaultCase(Node node) {
+                if (node instanceof Token && line[0] == 0) {
+                    line[0] = ((Token) node).getLine();
+                }
+            }
+        });
+
+        return line[0];
+    }
+}
@@ -0,0 +1,72 @@
+package minipython.frontend;
+
+import java.io.*;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import minipython.parser.Parser;
+import minipython.node.*;
+
+class SymbolPoolTest {
+    @Test
+    void internsEachNameOnce() {
+        SymbolPool symbols = new SymbolPool();
+        int x = symbols.intern("x");
+
+        assertEquals(x, symbols.intern(new String("x")));
+        assertNotEquals(x, symbols.intern("y"));
+        assertEquals("x", symbols.name(x));
+        assertEquals(-1, symbols.id("z"));
+        assertEquals(2, symbols.size());
+    }
+
+    @Test
+    void keepsTheIdOnTheToken() {
+        SymbolPool symbols = new SymbolPool();
+        TId token = new TId("x");
+        Integer id = symbols.symbol(token);
+
+        assertSame(id, token.getSymbol(symbols));
+        assertSame(id, symbols.symbol(new TId("x")));
+    }
+
+    @Test
+    void ignoresTheIdOfAnotherPool() {
+        SymbolPool symbols = new SymbolPool();
+        SymbolPool other = new SymbolPool();
+        other.intern("y");
+        TId token = new TId("x");
+        symbols.symbol(token);
+
+        assertNull(token.getSymbol(other));
+        assertEquals(1, (int) other.symbol(token));
+        assertEquals(0, (int) symbols.symbol(token));
+    }
+
+    @Test
+    void cloneKeepsTheId() {
+        SymbolPool symbols = new SymbolPool();
+        TId token = new TId("x", 3, 5);
+        Integer id = symbols.symbol(token);
+        TId clone = (TId) token.clone();
+
+        assertSame(id, clone.getSymbol(symbols));
+        assertEquals(3, clone.getLine());
+    }
+
+    @Test
+    void qualifiesCallsThroughAModule() throws Exception {
+        SymbolPool symbols = new SymbolPool();
+        Start ast = new Parser(new InterningLexer(new PushbackReader(
+            new StringReader("import m\nprint m.f(1), f(2)\n"), 1024), symbols)).parse();
+        APrintStatement print = (APrintStatement) ((AStatCommands) ((AGoal) ast.getPGoal()).getCommands().get(1)).getStatement();
+        AFunctionCall method = (AFunctionCall) ((AMethodcallArithmetics) print.getArithmetics()).getFunctionCall();
+        AFunctionCall function = (AFunctionCall) ((AFunctionArithmetics)
+            ((ACommaExpr) print.getCommaExpr().get(0)).getArithmetics()).getFunctionCall();
+
+        assertEquals(symbols.intern(SymbolPool.qualify("m", "f")), (int) symbols.callee(method));
+        assertEquals(symbols.intern("f"), (int) symbols.callee(function));
+    }
+}
@@ -0,0 +1,298 @@
+package minipython.runtime;
+
+import java.util.*;
+
+/**
+ * Runtime value of a MiniPython list.
+ * Lists whose elements are all integers or all doubles keep them in a
+ * primitive long[] or double[] array, so len, max, min and the generated
+ * loops, which read the elements with getLong and getDouble, run over the
+ * array without boxing. Storing an element of another type moves the list to
+ * boxed storage.
+ * max and min over long and double lists use the SIMD VectorKernels when the
+ * JVM provides the jdk.incubator.vector module and ScalarKernels otherwise.
+ * This class is part of the runtime support and does not depend on the
+ * parser or the checker.
+ */
+public class MiniList {
+
+    /**
+     * The storage used by a list
+     */
+    public static enum KIND {
+        LONG,
+        DOUBLE,
+        OBJECT,
+    }
+
+    private static final boolean VECTORIZED = vectorKernelsAvailable();
+    private static final int VECTOR_THRESHOLD = 64;
+
+    private KIND kind;
+    private long[] longs;
+    private double[] doubles;
+    private Object[] objects;
+    private final int size;
+
+    private MiniList(KIND kind, long[] longs, double[] doubles, Object[] objects, int size) {
+        this.kind = kind;
+        this.longs = longs;
+        this.doubles = doubles;
+        this.objects = objects;
+        this.size = size;
+    }
+
+    public static MiniList ofLongs(long... values) {
+        return new MiniList(KIND.LONG, values, null, null, values.length);
+    }
+
+    public static MiniList ofDoubles(double... values) {
+        return new MiniList(KIND.DOUBLE, null, values, null, values.length);
+    }
+
+    /**
+     * Creates a list choosing its storage from the elements' runtime types
+     * @param values the list's elements
+     * @return the new list
+     */
+    public static MiniList of(Object... values) {
+        boolean allLongs = true;
+        boolean allDoubles = true;
+        for (Object value : values) {
+            allLongs &= value instanceof Long;
+            allDoubles &= value instanceof Double;
+        }
+
+        if (allLongs && values.length > 0) {
+            long[] longs = new long[values.length];
+            for (int i = 0; i < values.length; i++) {
+                longs[i] = (Long) values[i];
+            }
+            return ofLongs(longs);
+
+        } else if (allDoubles && values.length > 0) {
+            double[] doubles = new double[values.length];
+            for (int i = 0; i < values.length; i++) {
+                doubles[i] = (Double) values[i];
+            }
+            return ofDoubles(doubles);
+        }
+
+        return new MiniList(KIND.OBJECT, null, null, values.clone(), values.length);
+    }
+
+    public KIND getKind() {
+        return kind;
+    }
+
+    public int len() {
+        return size;
+    }
+
+    // Element access
+
+    public Object get(int index) {
+        index = checkIndex(index);
+        switch (kind) {
+            case LONG:
+                return longs[index];
+
+            case DOUBLE:
+                return doubles[index];
+
+            default:
+                return objects[index];
+        }
+    }
+
+    public long getLong(int index) {
+        return longs[checkIndex(index)];
+    }
+
+    public double getDouble(int index) {
+        return doubles[checkIndex(index)];
+    }
+
+    /**
+     * Stores an element, changing the list's storage if the element does not fit it
+     * @param index the element's index
+     * @param value the new element
+     */
+    public void set(int index, Object value) {
+        index = checkIndex(index);
+        if (kind == KIND.LONG && value instanceof Long) {
+            longs[index] = (Long) value;
+        } else if (kind == KIND.DOUBLE && value instanceof Double) {
+            doubles[index] = (Double) value;
+        } else {
+            toObjects();
+            objects[index] = value;
+        }
+    }
+
+    // Aggregates over the primitive storage
+
+    /**
+     * Finds the largest element
+     * @return the largest element, boxed once
+     */
+    public Object max() {
+        switch (kind) {
+            case LONG:
+                return maxLong();
+
+            case DOUBLE:
+                return maxDouble();
+
+            default:
+                return extreme(1);
+        }
+    }
+
+    /**
+     * Finds the smallest element
+     * @return the smallest element, boxed once
+     */
+    public Object min() {
+        switch (kind) {
+            case LONG:
+                return minLong();
+
+            case DOUBLE:
+                return minDouble();
+
+            default:
+                return extreme(-1);
+        }
+    }
+
+    public long maxLong() {
+        checkNotEmpty();
+        if (VECTORIZED && size >= VECTOR_THRESHOLD) {
+            return VectorKernels.maxLong(longs, size);
+        }
+
+        return ScalarKernels.maxLong(longs, size);
+    }
+
+    public long minLong() {
+        checkNotEmpty();
+        if (VECTORIZED && size >= VECTOR_THRESHOLD) {
+            return VectorKernels.minLong(longs, size);
+        }
+
+        return ScalarKernels.minLong(longs, size);
+    }
+
+    public double maxDouble() {
+        checkNotEmpty();
+        if (VECTORIZED && size >= VECTOR_THRESHOLD) {
+            return VectorKernels.maxDouble(doubles, size);
+        }
+
+        return ScalarKernels.maxDouble(doubles, size);
+    }
+
+    public double minDouble() {
+        checkNotEmpty();
+        if (VECTORIZED && size >= VECTOR_THRESHOLD) {
+            return VectorKernels.minDouble(doubles, size);
+        }
+
+        return ScalarKernels.minDouble(doubles, size);
+    }
+
+    // Getters of the storage, used by generated loops
+
+    public long[] getLongs() {
+        return longs;
+    }
+
+    public double[] getDoubles() {
+        return doubles;
+    }
+
+    public Object[] getObjects() {
+        return objects;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("[");
+        for (int i = 0; i < size; i++) {
+            if (i > 0) {
+                builder.append(", ");
+            }
+            Object element = get(i);
+            builder.append(element instanceof String ? "'" + element + "'" : String.valueOf(element));
+        }
+
+        return builder.append(']').toString();
+    }
+
+    // Helper methods
+
+    /**
+     * Checks once whether the SIMD kernels can be loaded
+     */
+    private static boolean vectorKernelsAvailable() {
+        try {
+            return VectorKernels.isAvailable();
+        } catch (LinkageError e) {
+            return false;
+        }
+    }
+
+    private int checkIndex(int index) {
+        int position = index < 0 ? index + size : index;
+        if (position < 0 || position >= size) {
+            throw new IndexOutOfBoundsException("list index out of range");
+        }
+
+        return position;
+    }
+
+    private void checkNotEmpty() {
+        if (size == 0) {
+            throw new IllegalArgumentException("max() or min() arg is an empty sequence");
+        }
+    }
+
+    /**
+     * Moves the elements to boxed storage
+     */
+    private void toObjects() {
+        if (kind == KIND.OBJECT) {
+            return;
+        }
+
+        Object[] boxed = new Object[size];
+        for (int i = 0; i < size; i++) {
+            boxed[i] = get(i);
+        }
+        objects = boxed;
+        longs = null;
+        doubles = null;
+        kind = KIND.OBJECT;
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private Object extreme(int sign) {
+        checkNotEmpty();
+        Object best = objects[0];
+        for (int i = 1; i < size; i++) {
+            Object element = objects[i];
+            int comparison;
+            if (element instanceof Number && best instanceof Number) {
+                comparison = Double.compare(((Number) element).doubleValue(), ((Number) best).doubleValue());
+            } else {
+                comparison = ((Comparable) element).compareTo(best);
+            }
+            if (comparison * sign > 0) {
+                best = element;
+            }
+        }
+
+        return best;
+    }
+}
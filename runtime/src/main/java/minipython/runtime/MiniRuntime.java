@@ -0,0 +1,357 @@
+package minipython.runtime;
+
+/**
+ * Runtime support of compiled MiniPython programs.
+ * Values are represented as Long (integers), Double, String, MiniList and
+ * null (None). The generated code calls these operations for every
+ * expression whose result depends on the operands' runtime types.
+ * This class is part of the runtime support and does not depend on the
+ * parser or the checker.
+ */
+public class MiniRuntime {
+
+    // Arithmetics
+
+    public static Object add(Object l, Object r) {
+        if (l instanceof Long && r instanceof Long) {
+            return Math.addExact((Long) l, (Long) r);
+        } else if (isNumber(l) && isNumber(r)) {
+            return toDouble(l) + toDouble(r);
+        } else if (l instanceof String && r instanceof String) {
+            return (String) l + r;
+        }
+
+        throw operandError("+", l, r);
+    }
+
+    public static Object sub(Object l, Object r) {
+        if (l instanceof Long && r instanceof Long) {
+            return Math.subtractExact((Long) l, (Long) r);
+        } else if (isNumber(l) && isNumber(r)) {
+            return toDouble(l) - toDouble(r);
+        }
+
+        throw operandError("-", l, r);
+    }
+
+    public static Object mul(Object l, Object r) {
+        if (l instanceof Long && r instanceof Long) {
+            return Math.multiplyExact((Long) l, (Long) r);
+        } else if (isNumber(l) && isNumber(r)) {
+            return toDouble(l) * toDouble(r);
+        } else if (l instanceof String && r instanceof Long) {
+            return ((String) l).repeat((int) Math.max(0, (Long) r));
+        } else if (l instanceof Long && r instanceof String) {
+            return ((String) r).repeat((int) Math.max(0, (Long) l));
+        }
+
+        throw operandError("*", l, r);
+    }
+
+    public static Object div(Object l, Object r) {
+        if (isNumber(l) && isNumber(r)) {
+            double divisor = toDouble(r);
+            if (divisor == 0) {
+                throw new ArithmeticException("division by zero");
+            }
+            return toDouble(l) / divisor;
+        }
+
+        throw operandError("/", l, r);
+    }
+
+    public static Object pow(Object l, Object r) {
+        if (l instanceof Long && r instanceof Long && (Long) r >= 0) {
+            // Exponentiation by squaring, the base is only squared while a higher bit needs it
+            long base = (Long) l;
+            long result = 1;
+            for (long exponent = (Long) r; exponent > 0; exponent >>= 1) {
+                if ((exponent & 1) != 0) {
+                    result = Math.multiplyExact(result, base);
+                }
+                if (exponent > 1) {
+                    base = Math.multiplyExact(base, base);
+                }
+            }
+            return result;
+        } else if (isNumber(l) && isNumber(r)) {
+            return Math.pow(toDouble(l), toDouble(r));
+        }
+
+        throw operandError("**", l, r);
+    }
+
+    // Comparisons
+
+    public static boolean eq(Object l, Object r) {
+        if (isNumber(l) && isNumber(r)) {
+            return compare(l, r) == 0;
+        }
+
+        return l == null ? r == null : l.equals(r);
+    }
+
+    /**
+     * Orders two values of compatible types
+     * @return a negative number, zero or a positive number as in Comparable
+     */
+    public static int compare(Object l, Object r) {
+        if (l instanceof Long && r instanceof Long) {
+            return Long.compare((Long) l, (Long) r);
+        } else if (isNumber(l) && isNumber(r)) {
+            return Double.compare(toDouble(l), toDouble(r));
+        } else if (l instanceof String && r instanceof String) {
+            return ((String) l).compareTo((String) r);
+        }
+
+        throw operandError("comparison", l, r);
+    }
+
+    // Comparisons with an element of a primitive list, used by the loops over them so that the element is not boxed
+
+    public static boolean eq(long l, Object r) {
+        return r instanceof Long ? l == (Long) r : isNumber(r) && Double.compare(l, toDouble(r)) == 0;
+    }
+
+    public static boolean eq(Object l, long r) {
+        return eq(r, l);
+    }
+
+    public static boolean eq(long l, long r) {
+        return l == r;
+    }
+
+    public static boolean eq(double l, Object r) {
+        return isNumber(r) && Double.compare(l, toDouble(r)) == 0;
+    }
+
+    public static boolean eq(Object l, double r) {
+        return eq(r, l);
+    }
+
+    public static boolean eq(double l, double r) {
+        return Double.compare(l, r) == 0;
+    }
+
+    public static int compare(long l, Object r) {
+        if (r instanceof Long) {
+            return Long.compare(l, (Long) r);
+        } else if (isNumber(r)) {
+            return Double.compare(l, toDouble(r));
+        }
+
+        throw operandError("comparison", l, r);
+    }
+
+    public static int compare(Object l, long r) {
+        if (l instanceof Long) {
+            return Long.compare((Long) l, r);
+        } else if (isNumber(l)) {
+            return Double.compare(toDouble(l), r);
+        }
+
+        throw operandError("comparison", l, r);
+    }
+
+    public static int compare(long l, long r) {
+        return Long.compare(l, r);
+    }
+
+    public static int compare(double l, Object r) {
+        if (isNumber(r)) {
+            return Double.compare(l, toDouble(r));
+        }
+
+        throw operandError("comparison", l, r);
+    }
+
+    public static int compare(Object l, double r) {
+        if (isNumber(l)) {
+            return Double.compare(toDouble(l), r);
+        }
+
+        throw operandError("comparison", l, r);
+    }
+
+    public static int compare(double l, double r) {
+        return Double.compare(l, r);
+    }
+
+    public static boolean isTrue(Object value) {
+        if (value == null) {
+            return false;
+        } else if (value instanceof Long) {
+            return (Long) value != 0;
+        } else if (value instanceof Double) {
+            return (Double) value != 0;
+        } else if (value instanceof String) {
+            return !((String) value).isEmpty();
+        } else if (value instanceof MiniList) {
+            return ((MiniList) value).len() > 0;
+        }
+
+        return true;
+    }
+
+    // Builtins
+
+    public static void print(Object... values) {
+        StringBuilder line = new StringBuilder();
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                line.append(' ');
+            }
+            line.append(str(values[i]));
+        }
+        System.out.println(line);
+    }
+
+    public static String str(Object value) {
+        return value == null ? "None" : value.toString();
+    }
+
+    public static Object len(Object value) {
+        if (value instanceof MiniList) {
+            return (long) ((MiniList) value).len();
+        } else if (value instanceof String) {
+            return (long) ((String) value).length();
+        }
+
+        throw new IllegalArgumentException("object of type '" + typeName(value) + "' has no len()");
+    }
+
+    public static Object max(Object first, Object... rest) {
+        if (rest.length == 0) {
+            return iterate(first).max();
+        }
+
+        Object max = first;
+        for (Object value : rest) {
+            if (compare(value, max) > 0) {
+                max = value;
+            }
+        }
+
+        return max;
+    }
+
+    public static Object min(Object first, Object... rest) {
+        if (rest.length == 0) {
+            return iterate(first).min();
+        }
+
+        Object min = first;
+        for (Object value : rest) {
+            if (compare(value, min) < 0) {
+                min = value;
+            }
+        }
+
+        return min;
+    }
+
+    // Lists
+
+    public static Object index(Object sequence, Object index) {
+        if (sequence instanceof MiniList) {
+            return ((MiniList) sequence).get(toIndex(index));
+        } else if (sequence instanceof String) {
+            String string = (String) sequence;
+            int position = toIndex(index);
+            position = position < 0 ? position + string.length() : position;
+            if (position < 0 || position >= string.length()) {
+                throw new IndexOutOfBoundsException("string index out of range");
+            }
+            return String.valueOf(string.charAt(position));
+        }
+
+        throw new IllegalArgumentException("'" + typeName(sequence) + "' object is not subscriptable");
+    }
+
+    public static void setIndex(Object sequence, Object index, Object value) {
+        if (!(sequence instanceof MiniList)) {
+            throw new IllegalArgumentException("'" + typeName(sequence) + "' object does not support item assignment");
+        }
+
+        ((MiniList) sequence).set(toIndex(index), value);
+    }
+
+    /**
+     * Returns the list a for statement iterates over
+     * @param value a list or a string
+     * @return the list itself or the string's characters
+     */
+    public static MiniList iterate(Object value) {
+        if (value instanceof MiniList) {
+            return (MiniList) value;
+        } else if (value instanceof String) {
+            String string = (String) value;
+            Object[] characters = new Object[string.length()];
+            for (int i = 0; i < characters.length; i++) {
+                characters[i] = String.valueOf(string.charAt(i));
+            }
+            return MiniList.of(characters);
+        }
+
+        throw new IllegalArgumentException("'" + typeName(value) + "' object is not iterable");
+    }
+
+    public static void check(Object condition, Object message) {
+        if (!isTrue(condition)) {
+            throw new AssertionError(message == null ? "assertion failed" : str(message));
+        }
+    }
+
+    // Conversions
+
+    public static long toLong(Object value) {
+        if (value instanceof Long) {
+            return (Long) value;
+        }
+
+        throw new IllegalArgumentException("expected an integer, got '" + typeName(value) + "'");
+    }
+
+    public static double toDouble(Object value) {
+        if (value instanceof Number) {
+            return ((Number) value).doubleValue();
+        }
+
+        throw new IllegalArgumentException("expected a number, got '" + typeName(value) + "'");
+    }
+
+    // Helper methods
+
+    private static boolean isNumber(Object value) {
+        return value instanceof Long || value instanceof Double;
+    }
+
+    private static int toIndex(Object index) {
+        if (!(index instanceof Long)) {
+            throw new IllegalArgumentException("indices must be integers, not '" + typeName(index) + "'");
+        }
+
+        return Math.toIntExact((Long) index);
+    }
+
+    private static String typeName(Object value) {
+        if (value == null) {
+            return "NoneType";
+        } else if (value instanceof Long) {
+            return "int";
+        } else if (value instanceof Double) {
+            return "float";
+        } else if (value instanceof String) {
+            return "str";
+        } else if (value instanceof MiniList) {
+            return "list";
+        }
+
+        return value.getClass().getSimpleName();
+    }
+
+    private static IllegalArgumentException operandError(String operator, Object l, Object r) {
+        return new IllegalArgumentException("unsupported operand types for " + operator + ": '"
+                + typeName(l) + "' and '" + typeName(r) + "'");
+    }
+}
@@ -0,0 +1,245 @@
+package minipython.runtime;
+
+import java.io.*;
+import java.util.*;
+
+/**
+ * Runtime support of programs compiled with profiling.
+ * The generated code reports every executed statement's source line and every
+ * function entry and exit. Calls and time are counted per function definition,
+ * statements per line, and the time spent in each distinct call stack is
+ * accumulated in a tree of stacks, written out as collapsed stacks
+ * ('main;f;g 1200', one stack per line, weighed in nanoseconds), the input
+ * format of flame graph tools. Counters are plain arrays, as compiled programs
+ * are single-threaded, and the children of the stack nodes are found in an
+ * open-addressing table of primitive keys, so a call neither allocates nor
+ * boxes once its stack has been seen.
+ * This class is part of the runtime support and does not depend on the
+ * parser or the checker.
+ */
+public final class Profiler {
+    private static final String ROOT = "main";
+
+    private static String[] names;
+    private static String output;
+    private static long[] lines;
+
+    // Per function: calls, time including callees and active calls (for recursion)
+    private static long[] calls;
+    private static long[] nanos;
+    private static long[] starts;
+    private static int[] active;
+
+    // The tree of call stacks, node 0 being the top level
+    private static int[] parents;
+    private static int[] functions;
+    private static long[] selfNanos;
+    private static int nodes;
+
+    // The children of the tree's nodes, keyed on the parent node and the function, empty slots holding EMPTY
+    private static final long EMPTY = -1;
+    private static long[] childKeys;
+    private static int[] childNodes;
+
+    // The current stack of tree nodes
+    private static int[] stack;
+    private static int depth;
+    private static long last;
+
+    private Profiler() {
+    }
+
+    /**
+     * Resets the counters before a profiled program runs
+     * @param functionNames the names of the program's functions, by index
+     * @param lastLine      the program's last source line
+     * @param path          the collapsed stacks file written by stop, or null
+     */
+    public static void start(String[] functionNames, int lastLine, String path) {
+        names = functionNames;
+        output = path;
+        lines = new long[lastLine + 1];
+        calls = new long[names.length];
+        nanos = new long[names.length];
+        starts = new long[names.length];
+        active = new int[names.length];
+
+        parents = new int[64];
+        functions = new int[64];
+        selfNanos = new long[64];
+        functions[0] = -1;
+        nodes = 1;
+        childKeys = new long[128];
+        Arrays.fill(childKeys, EMPTY);
+        childNodes = new int[128];
+        stack = new int[64];
+        depth = 0;
+        last = System.nanoTime();
+    }
+
+    public static void line(int line) {
+        lines[line]++;
+    }
+
+    public static void enter(int function) {
+        long now = System.nanoTime();
+        int current = stack[depth];
+        selfNanos[current] += now - last;
+        last = now;
+
+        calls[function]++;
+        if (active[function]++ == 0) {
+            starts[function] = now;
+        }
+
+        // Direct recursion stays on the same node, keeping the tree as small as the program
+        int next = functions[current] == function ? current : child(current, function);
+        if (++depth == stack.length) {
+            stack = Arrays.copyOf(stack, depth * 2);
+        }
+        stack[depth] = next;
+    }
+
+    public static void exit(int function) {
+        long now = System.nanoTime();
+        selfNanos[stack[depth]] += now - last;
+        last = now;
+
+        if (--active[function] == 0) {
+            nanos[function] += now - starts[function];
+        }
+        depth--;
+    }
+
+    /**
+     * Ends the profiling, writing the collapsed stacks and the hot-spot report
+     */
+    public static void stop() {
+        if (names == null) {
+            return;
+        }
+        selfNanos[stack[depth]] += System.nanoTime() - last;
+
+        if (output != null) {
+            try (Writer out = new BufferedWriter(new FileWriter(output))) {
+                writeCollapsed(out);
+            } catch (IOException e) {
+                System.err.println("Could not write profile '" + output + "': " + e.getMessage());
+            }
+        }
+        report(System.err, 10);
+        names = null;
+    }
+
+    /**
+     * Writes the time spent in every call stack, one stack per line
+     * @param out the writer of the collapsed stacks
+     */
+    public static void writeCollapsed(Writer out) throws IOException {
+        for (int node = 0; node < nodes; node++) {
+            if (selfNanos[node] > 0) {
+                out.write(stackName(node) + " " + selfNanos[node] + "\n");
+            }
+        }
+    }
+
+    /**
+     * Prints the functions taking the most time and the most executed lines
+     * @param out   the report's stream
+     * @param limit the number of functions and lines listed
+     */
+    public static void report(PrintStream out, int limit) {
+        Integer[] byTime = new Integer[names.length];
+        for (int i = 0; i < byTime.length; i++) {
+            byTime[i] = i;
+        }
+        Arrays.sort(byTime, (a, b) -> Long.compare(nanos[b], nanos[a]));
+
+        out.println("Functions (calls, total ms):");
+        for (int i = 0; i < Math.min(limit, byTime.length) && calls[byTime[i]] > 0; i++) {
+            int function = byTime[i];
+            out.printf("  %-24s %10d %12.3f%n", names[function], calls[function], nanos[function] / 1e6);
+        }
+
+        Integer[] byCount = new Integer[lines.length];
+        for (int i = 0; i < byCount.length; i++) {
+            byCount[i] = i;
+        }
+        Arrays.sort(byCount, (a, b) -> Long.compare(lines[b], lines[a]));
+
+        out.println("Lines (executed statements):");
+        for (int i = 0; i < Math.min(limit, byCount.length) && lines[byCount[i]] > 0; i++) {
+            out.printf("  line %-19d %10d%n", byCount[i], lines[byCount[i]]);
+        }
+    }
+
+    // Helper methods
+
+    /**
+     * Finds the node of a call from a stack, adding it on the first call
+     */
+    private static int child(int parent, int function) {
+        long key = ((long) parent << 32) | function;
+        int mask = childKeys.length - 1;
+        int slot = slot(key, mask);
+        while (childKeys[slot] != EMPTY) {
+            if (childKeys[slot] == key) {
+                return childNodes[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        if (nodes == parents.length) {
+            parents = Arrays.copyOf(parents, nodes * 2);
+            functions = Arrays.copyOf(functions, nodes * 2);
+            selfNanos = Arrays.copyOf(selfNanos, nodes * 2);
+        }
+        parents[nodes] = parent;
+        functions[nodes] = function;
+        childKeys[slot] = key;
+        childNodes[slot] = nodes;
+
+        // Keep the table at most half full, every node but the top level being a child
+        if (nodes * 2 > childKeys.length) {
+            growChildren();
+        }
+
+        return nodes++;
+    }
+
+    /**
+     * Doubles the table of children, placing every entry again
+     */
+    private static void growChildren() {
+        long[] keys = childKeys;
+        int[] values = childNodes;
+        childKeys = new long[keys.length * 2];
+        Arrays.fill(childKeys, EMPTY);
+        childNodes = new int[keys.length * 2];
+
+        int mask = childKeys.length - 1;
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != EMPTY) {
+                int slot = slot(keys[i], mask);
+                while (childKeys[slot] != EMPTY) {
+                    slot = (slot + 1) & mask;
+                }
+                childKeys[slot] = keys[i];
+                childNodes[slot] = values[i];
+            }
+        }
+    }
+
+    private static int slot(long key, int mask) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash >>> 32) & mask;
+    }
+
+    private static String stackName(int node) {
+        if (node == 0) {
+            return ROOT;
+        }
+
+        return stackName(parents[node]) + ";" + names[functions[node]];
+    }
+}
@@ -0,0 +1,45 @@
+package minipython.runtime;
+
+/**
+ * Plain loops computing the aggregates of primitive list storage.
+ * They are the fallback of VectorKernels when the jdk.incubator.vector
+ * module is not available and are used for short lists.
+ */
+public class ScalarKernels {
+
+    public static long maxLong(long[] values, int size) {
+        long max = values[0];
+        for (int i = 1; i < size; i++) {
+            max = Math.max(max, values[i]);
+        }
+
+        return max;
+    }
+
+    public static long minLong(long[] values, int size) {
+        long min = values[0];
+        for (int i = 1; i < size; i++) {
+            min = Math.min(min, values[i]);
+        }
+
+        return min;
+    }
+
+    public static double maxDouble(double[] values, int size) {
+        double max = values[0];
+        for (int i = 1; i < size; i++) {
+            max = Math.max(max, values[i]);
+        }
+
+        return max;
+    }
+
+    public static double minDouble(double[] values, int size) {
+        double min = values[0];
+        for (int i = 1; i < size; i++) {
+            min = Math.min(min, values[i]);
+        }
+
+        return min;
+    }
+}
@@ -0,0 +1,106 @@
+package minipython.runtime;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * SIMD versions of the aggregates of primitive list storage, using the
+ * jdk.incubator.vector API. Each kernel reduces whole vectors lane-wise
+ * and finishes the remaining elements with a scalar loop.
+ * The class can only be loaded when the JVM runs with
+ * --add-modules jdk.incubator.vector, see isAvailable().
+ */
+public class VectorKernels {
+    private static final VectorSpecies<Long> LONGS = LongVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Double> DOUBLES = DoubleVector.SPECIES_PREFERRED;
+
+    /**
+     * Checks whether the Vector API can be used by this JVM
+     * @return true if the kernels can be called
+     */
+    public static boolean isAvailable() {
+        try {
+            return LONGS.length() > 1 && DOUBLES.length() > 1;
+        } catch (LinkageError e) {
+            return false;
+        }
+    }
+
+    public static long maxLong(long[] values, int size) {
+        int bound = LONGS.loopBound(size);
+        if (bound == 0) {
+            return ScalarKernels.maxLong(values, size);
+        }
+
+        LongVector max = LongVector.fromArray(LONGS, values, 0);
+        for (int i = LONGS.length(); i < bound; i += LONGS.length()) {
+            max = max.max(LongVector.fromArray(LONGS, values, i));
+        }
+
+        long result = max.reduceLanes(VectorOperators.MAX);
+        for (int i = bound; i < size; i++) {
+            result = Math.max(result, values[i]);
+        }
+
+        return result;
+    }
+
+    public static long minLong(long[] values, int size) {
+        int bound = LONGS.loopBound(size);
+        if (bound == 0) {
+            return ScalarKernels.minLong(values, size);
+        }
+
+        LongVector min = LongVector.fromArray(LONGS, values, 0);
+        for (int i = LONGS.length(); i < bound; i += LONGS.length()) {
+            min = min.min(LongVector.fromArray(LONGS, values, i));
+        }
+
+        long result = min.reduceLanes(VectorOperators.MIN);
+        for (int i = bound; i < size; i++) {
+            result = Math.min(result, values[i]);
+        }
+
+        return result;
+    }
+
+    public static double maxDouble(double[] values, int size) {
+        int bound = DOUBLES.loopBound(size);
+        if (bound == 0) {
+            return ScalarKernels.maxDouble(values, size);
+        }
+
+        DoubleVector max = DoubleVector.fromArray(DOUBLES, values, 0);
+        for (int i = DOUBLES.length(); i < bound; i += DOUBLES.length()) {
+            max = max.max(DoubleVector.fromArray(DOUBLES, values, i));
+        }
+
+        double result = max.reduceLanes(VectorOperators.MAX);
+        for (int i = bound; i < size; i++) {
+            result = Math.max(result, values[i]);
+        }
+
+        return result;
+    }
+
+    public static double minDouble(double[] values, int size) {
+        int bound = DOUBLES.loopBound(size);
+        if (bound == 0) {
+            return ScalarKernels.minDouble(values, size);
+        }
+
+        DoubleVector min = DoubleVector.fromArray(DOUBLES, values, 0);
+        for (int i = DOUBLES.length(); i < bound; i += DOUBLES.length()) {
+            min = min.min(DoubleVector.fromArray(DOUBLES, values, i));
+        }
+
+        double result = min.reduceLanes(VectorOperators.MIN);
+        for (int i = bound; i < size; i++) {
+            result = Math.min(result, values[i]);
+        }
+
+        return result;
+    }
+}
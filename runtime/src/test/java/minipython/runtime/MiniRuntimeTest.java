@@ -0,0 +1,58 @@
+package minipython.runtime;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MiniRuntimeTest {
+    @Test
+    void raisesIntegersBySquaring() {
+        assertEquals(1024L, MiniRuntime.pow(2L, 10L));
+        assertEquals(1L, MiniRuntime.pow(7L, 0L));
+        assertEquals(-8L, MiniRuntime.pow(-2L, 3L));
+        assertEquals(Long.MIN_VALUE, MiniRuntime.pow(-2L, 63L));
+        assertEquals(1L, MiniRuntime.pow(1L, Long.MAX_VALUE));
+    }
+
+    @Test
+    void reportsAnIntegerPowerOverflow() {
+        assertThrows(ArithmeticException.class, () -> MiniRuntime.pow(2L, 63L));
+        assertThrows(ArithmeticException.class, () -> MiniRuntime.pow(3L, 40L));
+    }
+
+    @Test
+    void raisesToANegativeOrDoubleExponentAsDoubles() {
+        assertEquals(0.5, MiniRuntime.pow(2L, -1L));
+        assertEquals(8.0, MiniRuntime.pow(2.0, 3L));
+        assertEquals(2.0, MiniRuntime.pow(4L, 0.5));
+        assertThrows(IllegalArgumentException.class, () -> MiniRuntime.pow("2", 3L));
+    }
+
+    @Test
+    void comparesPrimitiveElementsLikeBoxedOnes() {
+        Object[] values = { 1L, 2L, 1.0, 1.5, "1", null };
+        for (Object value : values) {
+            assertEquals(MiniRuntime.eq((Object) 1L, value), MiniRuntime.eq(1L, value));
+            assertEquals(MiniRuntime.eq(value, (Object) 1L), MiniRuntime.eq(value, 1L));
+            assertEquals(MiniRuntime.eq((Object) 1.5, value), MiniRuntime.eq(1.5, value));
+            if (value instanceof Number) {
+                assertEquals(MiniRuntime.compare((Object) 1L, value), MiniRuntime.compare(1L, value));
+                assertEquals(MiniRuntime.compare(value, (Object) 1.5), MiniRuntime.compare(value, 1.5));
+            }
+        }
+        assertThrows(IllegalArgumentException.class, () -> MiniRuntime.compare(1L, "1"));
+    }
+
+    @Test
+    void movesAListToBoxedStorageForAnotherType() {
+        MiniList list = MiniList.of(1L, 2L, 3L);
+        assertEquals(MiniList.KIND.LONG, list.getKind());
+
+        list.set(1, "two");
+        assertEquals(MiniList.KIND.OBJECT, list.getKind());
+        assertEquals(1L, list.get(0));
+        assertEquals("two", list.get(1));
+        assertEquals(MiniList.KIND.DOUBLE, MiniList.of(1.0, 2.0).getKind());
+        assertEquals(MiniList.KIND.OBJECT, MiniList.of(1L, 2.0).getKind());
+    }
+}
@@ -0,0 +1,238 @@
+package minipython.semantics;
+
+import java.util.*;
+
+import minipython.analysis.DepthFirstAdapter;
+import minipython.node.*;
+import minipython.frontend.*;
+
+/**
+ * The CallGraph records which functions are called by each function and by
+ * the top-level statements, keyed on the functions' symbol ids.
+ * It finds the functions reachable from the top-level statements and the
+ * recursion cycles between them.
+ * 
+ * @param symbols pool holding the ids of the identifiers read
+ */
+public class CallGraph extends DepthFirstAdapter {
+    private final SymbolPool symbols;
+    private final Hashtable<Integer, List<AFunction>> definitions;
+    private final Hashtable<Integer, Set<Integer>> calls;
+    private final Set<Integer> roots;
+
+    private Integer current;
+    private int defaultValues;
+    private Set<Integer> reachable;
+    private List<Set<Integer>> cycles;
+
+    public CallGraph(SymbolPool symbols) {
+        this.symbols = symbols;
+        this.definitions = new Hashtable<>();
+        this.calls = new Hashtable<>();
+        this.roots = new LinkedHashSet<>();
+    }
+
+    @Override
+    public void inAFunction(AFunction node) {
+        current = symbols.symbol(node.getIdentifier());
+        definitions.computeIfAbsent(current, k -> new ArrayList<>()).add(node);
+        calls.computeIfAbsent(current, k -> new LinkedHashSet<>());
+    }
+
+    @Override
+    public void outAFunction(AFunction node) {
+        current = null;
+    }
+
+    @Override
+    public void inAAssignValue(AAssignValue node) {
+        // Default values are evaluated when the function is defined
+        defaultValues++;
+    }
+
+    @Override
+    public void outAAssignValue(AAssignValue node) {
+        defaultValues--;
+    }
+
+    @Override
+    public void inAFunctionCall(AFunctionCall node) {
+        Integer callee = symbols.callee(node);
+        if (current == null || defaultValues > 0) {
+            roots.add(callee);
+        } else {
+            calls.get(current).add(callee);
+        }
+    }
+
+    @Override
+    public void outAGoal(AGoal node) {
+        reachable = null;
+        cycles = null;
+    }
+
+    /**
+     * Finds the functions that can be called from the top-level statements
+     * @return the symbol ids of the reachable functions
+     */
+    public Set<Integer> getReachable() {
+        if (reachable == null) {
+            reachable = new LinkedHashSet<>();
+            Deque<Integer> pending = new ArrayDeque<>(roots);
+            while (!pending.isEmpty()) {
+                Integer function = pending.pop();
+                if (reachable.add(function)) {
+                    pending.addAll(calls.getOrDefault(function, Collections.emptySet()));
+                }
+            }
+        }
+
+        return reachable;
+    }
+
+    public boolean isReachable(Integer function) {
+        return getReachable().contains(function);
+    }
+
+    /**
+     * Finds the groups of functions that call each other, including
+     * functions that call themselves
+     * @return the strongly connected components containing a cycle
+     */
+    public List<Set<Integer>> getCycles() {
+        if (cycles == null) {
+            cycles = new ArrayList<>();
+            new Tarjan().run();
+        }
+
+        return cycles;
+    }
+
+    public boolean isRecursive(Integer function) {
+        for (Set<Integer> cycle : getCycles()) {
+            if (cycle.contains(function)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Removes the definitions of the functions that are never called
+     * from the top-level statements
+     * @param ast the program's tree
+     * @return the number of definitions removed
+     */
+    @SuppressWarnings("unchecked")
+    public int removeUnreachable(Start ast) {
+        AGoal goal = (AGoal) ast.getPGoal();
+        List<PCommands> unreachable = new ArrayList<>();
+        for (PCommands command : (LinkedList<PCommands>) goal.getCommands()) {
+            if (command instanceof AFuncCommands) {
+                AFunction function = (AFunction) ((AFuncCommands) command).getFunction();
+                if (!isReachable(symbols.symbol(function.getIdentifier()))) {
+                    unreachable.add(command);
+                }
+            }
+        }
+
+        goal.getCommands().removeAll(unreachable);
+        for (PCommands command : unreachable) {
+            definitions.remove(symbols.symbol(((AFunction) ((AFuncCommands) command).getFunction()).getIdentifier()));
+        }
+
+        return unreachable.size();
+    }
+
+    // Getters
+    public Hashtable<Integer, List<AFunction>> getDefinitions() {
+        return definitions;
+    }
+
+    public Hashtable<Integer, Set<Integer>> getCalls() {
+        return calls;
+    }
+
+    public Set<Integer> getRoots() {
+        return roots;
+    }
+
+    // Helper methods
+
+    /**
+     * Tarjan's strongly connected components over the defined functions.
+     * The depth-first search keeps its own stack of functions and of the
+     * callees left to visit, so long call chains do not overflow the stack.
+     */
+    private class Tarjan {
+        private final Hashtable<Integer, Integer> index = new Hashtable<>();
+        private final Hashtable<Integer, Integer> low = new Hashtable<>();
+        private final Deque<Integer> stack = new ArrayDeque<>();
+        private final Set<Integer> onStack = new HashSet<>();
+        private int counter;
+
+        private void run() {
+            for (Integer function : calls.keySet()) {
+                if (!index.containsKey(function)) {
+                    visit(function);
+                }
+            }
+        }
+
+        private void visit(Integer root) {
+            Deque<Integer> path = new ArrayDeque<>();
+            Deque<Iterator<Integer>> callees = new ArrayDeque<>();
+            enter(root, path, callees);
+
+            while (!path.isEmpty()) {
+                Integer function = path.peek();
+                Iterator<Integer> pending = callees.peek();
+                if (pending.hasNext()) {
+                    Integer callee = pending.next();
+                    if (!calls.containsKey(callee)) {
+                        continue;  // Undefined function
+                    }
+                    if (!index.containsKey(callee)) {
+                        enter(callee, path, callees);
+                    } else if (onStack.contains(callee)) {
+                        low.put(function, Math.min(low.get(function), index.get(callee)));
+                    }
+                    continue;
+                }
+
+                // Every callee is visited, the function is done
+                path.pop();
+                callees.pop();
+                if (!path.isEmpty()) {
+                    Integer caller = path.peek();
+                    low.put(caller, Math.min(low.get(caller), low.get(function)));
+                }
+
+                if (low.get(function).equals(index.get(function))) {
+                    Set<Integer> component = new LinkedHashSet<>();
+                    Integer member;
+                    do {
+                        member = stack.pop();
+                        onStack.remove(member);
+                        component.add(member);
+                    } while (!member.equals(function));
+
+                    if (component.size() > 1 || calls.get(function).contains(function)) {
+                        cycles.add(component);
+                    }
+                }
+            }
+        }
+
+        private void enter(Integer function, Deque<Integer> path, Deque<Iterator<Integer>> callees) {
+            index.put(function, counter);
+            low.put(function, counter);
+            counter++;
+            stack.push(function);
+            onStack.add(function);
+            path.push(function);
+            callees.push(calls.getOrDefault(function, Collections.emptySet()).iterator());
+        }
+    }
+}
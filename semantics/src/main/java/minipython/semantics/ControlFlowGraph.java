@@ -0,0 +1,168 @@
+package minipython.semantics;
+
+import java.util.*;
+
+import minipython.node.*;
+
+/**
+ * The ControlFlowGraph splits the statements of a single scope into basic blocks.
+ * The top-level statements form one scope and the body of every function forms
+ * its own. If statements branch to the block of their body, for statements loop
+ * back to a header block holding the loop variable's assignment and while
+ * statements, having no body, stay inside their block.
+ * 
+ * @param scope the function owning the statements or null for the top level
+ */
+public class ControlFlowGraph {
+    private final AFunction scope;
+    private final List<BasicBlock> blocks;
+    private final Hashtable<Node, BasicBlock> blockOf;
+    private final BasicBlock entry;
+
+    public ControlFlowGraph(AFunction scope) {
+        this.scope = scope;
+        this.blocks = new ArrayList<>();
+        this.blockOf = new Hashtable<>();
+        this.entry = newBlock();
+    }
+
+    /**
+     * Builds the graph of the top-level statements of a program
+     * @param goal the program's root
+     * @return the graph of the top-level scope
+     */
+    @SuppressWarnings("unchecked")
+    public static ControlFlowGraph build(AGoal goal) {
+        ControlFlowGraph graph = new ControlFlowGraph(null);
+        BasicBlock current = graph.entry;
+        for (PCommands command : (LinkedList<PCommands>) goal.getCommands()) {
+            if (command instanceof AStatCommands) {
+                current = graph.add(((AStatCommands) command).getStatement(), current);
+            }
+        }
+
+        return graph;
+    }
+
+    /**
+     * Builds the graph of a function's body
+     * @param function the function's definition
+     * @return the graph of the function's scope
+     */
+    public static ControlFlowGraph build(AFunction function) {
+        ControlFlowGraph graph = new ControlFlowGraph(function);
+        if (function.getStatement() != null) {
+            graph.add(function.getStatement(), graph.entry);
+        }
+
+        return graph;
+    }
+
+    /**
+     * Adds a statement to the graph
+     * @param statement the statement to add
+     * @param current   the block the statement starts in
+     * @return the block following the statement
+     */
+    private BasicBlock add(PStatement statement, BasicBlock current) {
+        if (statement instanceof AIfStatement) {
+            current.append(statement, this);
+            BasicBlock body = newBlock();
+            current.link(body);
+            BasicBlock end = add(((AIfStatement) statement).getStatement(), body);
+            BasicBlock join = newBlock();
+            current.link(join);
+            end.link(join);
+            return join;
+
+        } else if (statement instanceof AForStatement) {
+            BasicBlock header = newBlock();
+            current.link(header);
+            header.append(statement, this);
+            BasicBlock body = newBlock();
+            header.link(body);
+            add(((AForStatement) statement).getStatement(), body).link(header);
+            BasicBlock exit = newBlock();
+            header.link(exit);
+            return exit;
+
+        } else if (statement instanceof AAssertStatement) {
+            current.append(statement, this);
+            return add(((AAssertStatement) statement).getStatement(), current);
+        }
+
+        current.append(statement, this);
+        return current;
+    }
+
+    private BasicBlock newBlock() {
+        BasicBlock block = new BasicBlock(blocks.size());
+        blocks.add(block);
+        return block;
+    }
+
+    // Getters
+    public AFunction getScope() {
+        return scope;
+    }
+
+    public List<BasicBlock> getBlocks() {
+        return blocks;
+    }
+
+    public BasicBlock getEntry() {
+        return entry;
+    }
+
+    /**
+     * Finds the block holding a statement
+     * @param statement the statement
+     * @return the statement's block or null if it is not part of this graph
+     */
+    public BasicBlock getBlock(Node statement) {
+        return blockOf.get(statement);
+    }
+
+    /**
+     * A sequence of statements that always run one after the other
+     */
+    public static class BasicBlock {
+        private final int index;
+        private final List<PStatement> statements;
+        private final List<BasicBlock> successors;
+        private final List<BasicBlock> predecessors;
+
+        private BasicBlock(int index) {
+            this.index = index;
+            this.statements = new ArrayList<>();
+            this.successors = new ArrayList<>();
+            this.predecessors = new ArrayList<>();
+        }
+
+        private void append(PStatement statement, ControlFlowGraph graph) {
+            statements.add(statement);
+            graph.blockOf.put(statement, this);
+        }
+
+        private void link(BasicBlock successor) {
+            successors.add(successor);
+            successor.predecessors.add(this);
+        }
+
+        public int getIndex() {
+            return index;
+        }
+
+        public List<PStatement> getStatements() {
+            return statements;
+        }
+
+        public List<BasicBlock> getSuccessors() {
+            return successors;
+        }
+
+        public List<BasicBlock> getPredecessors() {
+            return predecessors;
+        }
+    }
+}
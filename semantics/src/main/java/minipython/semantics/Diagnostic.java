@@ -0,0 +1,204 @@
+package minipython.semantics;
+
+import minipython.analysis.DepthFirstAdapter;
+import minipython.analysis.ReversedDepthFirstAdapter;
+import minipython.node.*;
+
+/**
+ * An error found by the checker, located by the first and the last token of
+ * the node causing it. The tokens are found by traversals stopping at the
+ * first token they reach, so only the path down to it is visited, and both
+ * the tokens and the message are computed the first time they are asked for.
+ *
+ * @param node the node causing the error
+ * @param type the error's type
+ * @param name the function's or the module's name, for the errors naming one
+ */
+public class Diagnostic {
+    private final Node node;
+    private final FirstVisitor.ERROR_TYPES type;
+    private final String name;
+
+    private Token start;
+    private Token end;
+    private String message;
+
+    public Diagnostic(Node node, FirstVisitor.ERROR_TYPES type, String name) {
+        this.node = node;
+        this.type = type;
+        this.name = name;
+    }
+
+    /**
+     * Renders the error's message
+     * @return the message, e.g. "Error[3]: Undeclared variable named 'x'."
+     */
+    public String getMessage() {
+        if (message != null) {
+            return message;
+        }
+
+        String text;
+        switch (type) {
+            case UNDECLARED_VARIABLE:
+                text = "Undeclared variable named \'" + getStart().getText() + "\'.";
+                break;
+
+            case UNDEFINED_FUNCTION:
+                text = "Undefined function named \'" + getStart().getText() + "\'.";
+                break;
+
+            case UNORDERED_PARAMS:
+                text = "Parameter after default parameter in function \'"
+                    + ((AIdentifier) ((AFunction) node).getIdentifier()).getId().getText() + "\'.";
+                break;
+
+            case WRONG_PARAMS:
+                text = "Wrong parameters given for function named \'" + getStart().getText() + "\'.";
+                break;
+
+            case TYPE_MISSMATCH:
+                text = "Variable type missmatch.";
+                break;
+
+            case ADD_TYPE_MISSMATCH:
+                text = "Variable type missmatch in addition.";
+                break;
+
+            case MINUS_TYPE_MISSMATCH:
+                text = "Variable type missmatch in substraction.";
+                break;
+
+            case NONE_OPERATION:
+                text = "Illegal operation with None.";
+                break;
+
+            case IDENTICAL_FUNCTIONS:
+                text = "Function \'" + name + "\' already defined with same parameter number.";
+                break;
+
+            case UNDEFINED_MODULE:
+                text = "No module named \'" + name + "\'.";
+                break;
+
+            case UNDEFINED_IMPORT:
+                text = "Cannot import name \'" + getStart().getText() + "\' from module \'" + name + "\'.";
+                break;
+
+            case UNCOMPILABLE_IMPORT:
+                text = "Functions of module \'" + name + "\' can not be compiled.";
+                break;
+
+            default:
+                text = "Unknown error.";
+        }
+
+        message = getStart() == null ? "Error: " + text : "Error[" + getStart().getLine() + "]: " + text;
+        return message;
+    }
+
+    /**
+     * Checks whether the error was found in a given tree
+     * @param ast the tree
+     * @return true if the node causing the error belongs to the tree
+     */
+    public boolean isIn(Start ast) {
+        Node root = node;
+        while (root.parent() != null) {
+            root = root.parent();
+        }
+
+        return root == ast;
+    }
+
+    // Helper methods
+
+    private static Token firstToken(Node node) {
+        FirstToken finder = new FirstToken();
+        try {
+            node.apply(finder);
+        } catch (Found found) {
+            // The traversal stops at the first token
+        }
+
+        return finder.token;
+    }
+
+    private static Token lastToken(Node node) {
+        LastToken finder = new LastToken();
+        try {
+            node.apply(finder);
+        } catch (Found found) {
+            // The reversed traversal stops at the last token
+        }
+
+        return finder.token;
+    }
+
+    private static class FirstToken extends DepthFirstAdapter {
+        private Token token;
+
+        @Override
+        public void defaultCase(Node node) {
+            if (node instanceof Token) {
+                token = (Token) node;
+                throw Found.INSTANCE;
+            }
+        }
+    }
+
+    private static class LastToken extends ReversedDepthFirstAdapter {
+        private Token token;
+
+        @Override
+        public void defaultCase(Node node) {
+            if (node instanceof Token) {
+                token = (Token) node;
+                throw Found.INSTANCE;
+            }
+        }
+    }
+
+    /**
+     * Ends a traversal once its token is found, without a stack trace
+     */
+    private static class Found extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+        private static final Found INSTANCE = new Found();
+
+        private Found() {
+            super(null, null, false, false);
+        }
+    }
+
+    // Getters
+    public Node getNode() {
+        return node;
+    }
+
+    public FirstVisitor.ERROR_TYPES getType() {
+        return type;
+    }
+
+    /**
+     * @return the node's first token
+     */
+    public Token getStart() {
+        if (start == null) {
+            start = firstToken(node);
+        }
+
+        return start;
+    }
+
+    /**
+     * @return the node's last token
+     */
+    public Token getEnd() {
+        if (end == null) {
+            end = lastToken(node);
+        }
+
+        return end;
+    }
+}
@@ -1,23 +1,46 @@
+package minipython.semantics;
+
 import java.util.*;
+import java.util.function.Consumer;
 
 import minipython.analysis.DepthFirstAdapter;
 import minipython.node.*;
+import minipython.frontend.*;
 
 /**
  * The FirstVisitor does a first traversal of the code and stores the variables
  * and functions to their hashtables accordingly
  * 
- * @param variables     hashtable containing the name and node of the variables read
- * @param funcitons     hashtable containing the name and node of the functions read
- * @param variableTypes hashtable containing the node and type of the variables read
+ * @param symbols       pool holding the ids of the identifiers read
+ * @param variables     hashtable containing the symbol id and node of the variables read
+ * @param funcitons     hashtable containing the symbol id and node of the functions read
+ * @param variableTypes hashtable containing the node and type of the expressions read
+ * @param symbolTypes   hashtable containing the symbol id and type of the variables and functions read
+ * @param flowTypes     flow analysis giving the type of a variable where it is used, or null
  */
 public class FirstVisitor extends DepthFirstAdapter {
 
-	private final Hashtable<String, Node> variables;
-	private final Hashtable<String, Node> functions;
+	private final SymbolPool symbols;
+	private final Hashtable<Integer, Node> variables;
+	private final Hashtable<Integer, Node> functions;
 
 	private final Hashtable<Node, VAR_TYPES> variableTypes;
+	private final Hashtable<Integer, VAR_TYPES> symbolTypes;
+	private final FlowTypes flowTypes;
 	private final List<Function> functionList;
+	private final List<AFunction> functionNodes;
+	private final Hashtable<String, List<Integer>> definitions;
+
+	// Receives every error found
+	private Consumer<Diagnostic> errorHandler;
+
+	/**
+	* The default error handler, printing the error's message and ending the program
+	*/
+	public static final Consumer<Diagnostic> EXIT_ON_ERROR = diagnostic -> {
+		System.err.println(diagnostic.getMessage());
+		System.exit(-1);
+	};
 
 	/**
 	* All the recognisable potential error types listed
@@ -32,6 +55,9 @@ public class FirstVisitor extends DepthFirstAdapter {
 		MINUS_TYPE_MISSMATCH,
 		NONE_OPERATION,
 		IDENTICAL_FUNCTIONS,
+		UNDEFINED_MODULE,
+		UNDEFINED_IMPORT,
+		UNCOMPILABLE_IMPORT,
 	}
 
 	/**
@@ -45,22 +71,35 @@ public class FirstVisitor extends DepthFirstAdapter {
 		UNKNOWN,
 	}
 
-	public FirstVisitor(Hashtable<String, Node> variables, Hashtable<String, Node> functions, 
-			Hashtable<Node, VAR_TYPES> variableTypes) {
+	public FirstVisitor(SymbolPool symbols, Hashtable<Integer, Node> variables, Hashtable<Integer, Node> functions, 
+			Hashtable<Node, VAR_TYPES> variableTypes, Hashtable<Integer, VAR_TYPES> symbolTypes) {
+		this(symbols, variables, functions, variableTypes, symbolTypes, null);
+	}
+
+	public FirstVisitor(SymbolPool symbols, Hashtable<Integer, Node> variables, Hashtable<Integer, Node> functions, 
+			Hashtable<Node, VAR_TYPES> variableTypes, Hashtable<Integer, VAR_TYPES> symbolTypes, FlowTypes flowTypes) {
+		this.symbols = symbols;
 		this.variables = variables;
 		this.functions = functions;
 		this.variableTypes = variableTypes;
+		this.symbolTypes = symbolTypes;
+		this.flowTypes = flowTypes;
 		this.functionList = new ArrayList<>();
+		this.functionNodes = new ArrayList<>();
+		this.definitions = new Hashtable<>();
+		this.errorHandler = EXIT_ON_ERROR;
 	}
 
 	@Override
 	public void outAGoal(AGoal node) {
-		// Check for functions with identical names and parameters' names
-		for (Function function : functionList) {
-			for (Function f : functionList) {
+		// Check for functions with identical names and parameters' names, reporting the later definition
+		for (int i = 0; i < functionList.size(); i++) {
+			for (int j = 0; j < functionList.size(); j++) {
+				Function function = functionList.get(i);
+				Function f = functionList.get(j);
 				if (function != f && function.getName().equals(f.getName())) {
 					if (function.getTotalParams() == f.getTotalParams() || function.getParams() == f.getParams()) {
-						printError(node, ERROR_TYPES.IDENTICAL_FUNCTIONS, function.getName());
+						printError(functionNodes.get(Math.max(i, j)), ERROR_TYPES.IDENTICAL_FUNCTIONS, function.getName());
 					}
 				}
 			}
@@ -69,8 +108,8 @@ public class FirstVisitor extends DepthFirstAdapter {
 
 	@Override
 	public void inAIdentifier(AIdentifier node) {
-		// Get the name, the line and the parent of the node
-		String name = node.getId().getText();
+		// Get the symbol, the line and the parent of the node
+		Integer name = symbols.symbol(node);
 		Node parent = node.parent();
 
 		// Check for undeclared variables
@@ -84,8 +123,7 @@ public class FirstVisitor extends DepthFirstAdapter {
 			AForStatement forLoop = (AForStatement) parent;
 
 			// Check that the second identifer is an existing variable
-			AIdentifier id2 = (AIdentifier) forLoop.getId2();
-			if (name.equals(id2.getId().getText()) && !variables.containsKey(name)) {
+			if (name.equals(symbols.symbol(forLoop.getId2())) && !variables.containsKey(name)) {
 				// Print error message
 				printError(node, ERROR_TYPES.UNDECLARED_VARIABLE);
 			}
@@ -94,8 +132,8 @@ public class FirstVisitor extends DepthFirstAdapter {
 
 	@Override
 	public void outAIdentifier(AIdentifier node) {
-		// Get the name and the parent of the node
-		String name = node.getId().getText();
+		// Get the symbol and the parent of the node
+		Integer name = symbols.symbol(node);
 		Node parent = node.parent();
 
 		// Check the parent's type and react accordingly
@@ -104,7 +142,7 @@ public class FirstVisitor extends DepthFirstAdapter {
 			|| parent instanceof AArgument) {
 			// Create a new variable
 			variables.put(name, node);
-			variableTypes.put(node, VAR_TYPES.UNKNOWN);
+			symbolTypes.put(name, VAR_TYPES.UNKNOWN);
 
 		} else if (parent instanceof AFunction) {
 			// Create a new function
@@ -113,10 +151,10 @@ public class FirstVisitor extends DepthFirstAdapter {
 		} else if (parent instanceof AForStatement) {
 			AForStatement forLoop = (AForStatement) parent;
 
-			// Create a variable for the first identifier
-			AIdentifier id1 = (AIdentifier) forLoop.getId1();
-			if (name.equals(id1.getId().getText())) {
+			// Create a variable for the first identifier, an element of any type
+			if (name.equals(symbols.symbol(forLoop.getId1()))) {
 				variables.put(name, node);
+				symbolTypes.put(name, VAR_TYPES.UNKNOWN);
 			}
 		}
 	}
@@ -151,7 +189,9 @@ public class FirstVisitor extends DepthFirstAdapter {
 			}
 		}
 
+		definitions.computeIfAbsent(name, k -> new ArrayList<>()).add(functionList.size());
 		functionList.add(function);
+		functionNodes.add(node);
 	}
 
 	@Override
@@ -159,35 +199,18 @@ public class FirstVisitor extends DepthFirstAdapter {
 		// Retrieve the function's return type from it's return statement(if it exists)
 		if (node.getStatement() instanceof AReturnStatement) {
 			PArithmetics arithmetics = ((AReturnStatement) node.getStatement()).getArithmetics();
-			variableTypes.put(node.getIdentifier(), variableTypes.get(arithmetics));
+			VAR_TYPES type = variableTypes.get(arithmetics);
+			symbolTypes.put(symbols.symbol(node.getIdentifier()), type == null ? VAR_TYPES.UNKNOWN : type);
 
 		} else {  // Otheriwse None return type
-			variableTypes.put(node.getIdentifier(), VAR_TYPES.NONE);
+			symbolTypes.put(symbols.symbol(node.getIdentifier()), VAR_TYPES.NONE);
 		}
 	}
 
 	@Override
 	public void outAAssignmentStatement(AAssignmentStatement node) {
 		// Replace previous assignment type
-		String name = ((AIdentifier) node.getIdentifier()).getId().getText();
-		String varName;
-		List<Node> toRemove = new ArrayList<>();
-		for (Node variable  : variableTypes.keySet()) {
-			if (variable instanceof AIdentifier) {
-				varName = ((AIdentifier) variable).getId().getText();
-				if (varName.equals(name)) {
-					toRemove.add(variable);
-					break;
-				}
-			}
-		}
-		for (Node n : toRemove) {
-			variableTypes.remove(n);
-		}
-
-		PArithmetics arithmetics = node.getArithmetics();
-		Class<?> arithmeticsClass = arithmetics.getClass();
-		variableTypes.put(node.getIdentifier(), variableTypes.get(arithmeticsClass.cast(arithmetics)));
+		symbolTypes.put(symbols.symbol(node.getIdentifier()), variableTypes.get(node.getArithmetics()));
 	}
 
 	@Override
@@ -215,19 +238,32 @@ public class FirstVisitor extends DepthFirstAdapter {
 		variableTypes.put(node, VAR_TYPES.DOUBLE);
 	}
 
+	@Override
+	public void outAListArithmetics(AListArithmetics node) {
+		// Lists are not tracked by the variable types
+		variableTypes.put(node, VAR_TYPES.UNKNOWN);
+	}
+
+	@Override
+	public void outAListcallArithmetics(AListcallArithmetics node) {
+		variableTypes.put(node, VAR_TYPES.UNKNOWN);
+	}
+
+	@Override
+	public void outAArithmeticsArithmetics(AArithmeticsArithmetics node) {
+		// Parentheses have the type of their content
+		VAR_TYPES type = variableTypes.get(node.getArithmetics());
+		if (type != null) {
+			variableTypes.put(node, type);
+		}
+	}
+
 	@Override
 	public void outAIdentifierArithmetics(AIdentifierArithmetics node) {
-		String id = ((AIdentifier) node.getIdentifier()).getId().getText().trim();
-
-		// Iterate all varibles present and find a match
-		for (Node n : variableTypes.keySet()) {
-			if (n instanceof AIdentifier) {
-				if (id.equals(((AIdentifier) n).getId().getText().trim())) {
-					// Same type as defined in the assignment statement
-					variableTypes.put(node, variableTypes.get(n));
-					break;
-				}
-			}
+		// Same type as defined in the assignment statement
+		VAR_TYPES type = findVariableType(node.getIdentifier());
+		if (type != null) {
+			variableTypes.put(node, type);
 		}
 	}
 
@@ -242,13 +278,11 @@ public class FirstVisitor extends DepthFirstAdapter {
 		// AIdentifierArithmetics inserts Aidentifier node and not itself
 		// Hence, the AIdentifier's type should be retrieved
 		if (node.getL() instanceof AIdentifierArithmetics) {
-			lType = findVariableType(
-					((AIdentifier) ((AIdentifierArithmetics) node.getL()).getIdentifier()).getId().getText());
+			lType = findVariableType(((AIdentifierArithmetics) node.getL()).getIdentifier());
 		}
 
 		if (node.getR() instanceof AIdentifierArithmetics) {
-			rType = findVariableType(
-					((AIdentifier) ((AIdentifierArithmetics) node.getR()).getIdentifier()).getId().getText());
+			rType = findVariableType(((AIdentifierArithmetics) node.getR()).getIdentifier());
 		}
 
 		// All children must return a number for the expression to be valid
@@ -274,13 +308,11 @@ public class FirstVisitor extends DepthFirstAdapter {
 		VAR_TYPES rType = variableTypes.get(rClass.cast(node.getR()));
 
 		if (node.getL() instanceof AIdentifierArithmetics) {
-			lType = findVariableType(
-					((AIdentifier) ((AIdentifierArithmetics) node.getL()).getIdentifier()).getId().getText());
+			lType = findVariableType(((AIdentifierArithmetics) node.getL()).getIdentifier());
 		}
 
 		if (node.getR() instanceof AIdentifierArithmetics) {
-			rType = findVariableType(
-					((AIdentifier) ((AIdentifierArithmetics) node.getR()).getIdentifier()).getId().getText());
+			rType = findVariableType(((AIdentifierArithmetics) node.getR()).getIdentifier());
 		}
 
 		// The childrens' types must match
@@ -306,13 +338,11 @@ public class FirstVisitor extends DepthFirstAdapter {
 		VAR_TYPES rType = variableTypes.get(rClass.cast(node.getR()));
 
 		if (node.getL() instanceof AIdentifierArithmetics) {
-			lType = findVariableType(
-					((AIdentifier) ((AIdentifierArithmetics) node.getL()).getIdentifier()).getId().getText());
+			lType = findVariableType(((AIdentifierArithmetics) node.getL()).getIdentifier());
 		}
 
 		if (node.getR() instanceof AIdentifierArithmetics) {
-			rType = findVariableType(
-					((AIdentifier) ((AIdentifierArithmetics) node.getR()).getIdentifier()).getId().getText());
+			rType = findVariableType(((AIdentifierArithmetics) node.getR()).getIdentifier());
 		}
 
 		if (rType == VAR_TYPES.NONE || lType == VAR_TYPES.NONE) {
@@ -340,13 +370,11 @@ public class FirstVisitor extends DepthFirstAdapter {
 		VAR_TYPES rType = variableTypes.get(rClass.cast(node.getR()));
 
 		if (node.getL() instanceof AIdentifierArithmetics) {
-			lType = findVariableType(
-					((AIdentifier) ((AIdentifierArithmetics) node.getL()).getIdentifier()).getId().getText());
+			lType = findVariableType(((AIdentifierArithmetics) node.getL()).getIdentifier());
 		}
 
 		if (node.getR() instanceof AIdentifierArithmetics) {
-			rType = findVariableType(
-					((AIdentifier) ((AIdentifierArithmetics) node.getR()).getIdentifier()).getId().getText());
+			rType = findVariableType(((AIdentifierArithmetics) node.getR()).getIdentifier());
 		}
 
 		// All children must return a number for the expression to be valid
@@ -368,10 +396,16 @@ public class FirstVisitor extends DepthFirstAdapter {
 
 	@Override
 	public void outAFunctionArithmetics(AFunctionArithmetics node) {
-		// Find the function's type using it's identifier
-		String id = ((AIdentifier) ((AFunctionCall) node.getFunctionCall()).getIdentifier()).getId().getText();
-		VAR_TYPES type = findVariableType(id);
-		variableTypes.put(node, type);
+		// Find the function's type using it's identifier, unknown for a recursive call inside the function itself
+		VAR_TYPES type = findVariableType(((AFunctionCall) node.getFunctionCall()).getIdentifier());
+		variableTypes.put(node, type == null ? VAR_TYPES.UNKNOWN : type);
+	}
+
+	@Override
+	public void outAMethodcallArithmetics(AMethodcallArithmetics node) {
+		// A call through a module has the type of the module's function
+		VAR_TYPES type = symbolTypes.get(symbols.callee((AFunctionCall) node.getFunctionCall()));
+		variableTypes.put(node, type == null ? VAR_TYPES.UNKNOWN : type);
 	}
 
 	@Override
@@ -384,13 +418,11 @@ public class FirstVisitor extends DepthFirstAdapter {
 		VAR_TYPES rType = variableTypes.get(rClass.cast(node.getR()));
 
 		if (node.getL() instanceof AIdentifierArithmetics) {
-			lType = findVariableType(
-					((AIdentifier) ((AIdentifierArithmetics) node.getL()).getIdentifier()).getId().getText());
+			lType = findVariableType(((AIdentifierArithmetics) node.getL()).getIdentifier());
 		}
 
 		if (node.getR() instanceof AIdentifierArithmetics) {
-			rType = findVariableType(
-					((AIdentifier) ((AIdentifierArithmetics) node.getR()).getIdentifier()).getId().getText());
+			rType = findVariableType(((AIdentifierArithmetics) node.getR()).getIdentifier());
 		}
 
 		if (rType == VAR_TYPES.NONE || lType == VAR_TYPES.NONE) {
@@ -407,100 +439,67 @@ public class FirstVisitor extends DepthFirstAdapter {
 	// Helper methods
 
 	/**
-	* Prints the appropriate error message
-	* @param node the node causing the error
-	* @param type the error's type
+	* Checks the functions defined since a given point against all the functions before them,
+	* for a program checked one part at a time
+	* @param from the index in the function list of the first function not checked yet
 	*/
-	public static void printError(Node node, ERROR_TYPES type) {
-		String message = "Error";
-		AIdentifier id;
-		switch (type) {
-			case UNDECLARED_VARIABLE:
-				id = (AIdentifier) node;
-				message += "[" + id.getId().getLine() + "]: Undeclared variable named \'" + id.getId().getText() + "\'.";
-				break;
-
-			case UNDEFINED_FUNCTION:
-				id = (AIdentifier) node;
-				message += "[" + id.getId().getLine() + "]: Undefined function named \'" + id.getId().getText() + "\'.";
-				break;
-
-			case UNORDERED_PARAMS:
-				AFunction function = (AFunction) node;
-				id = (AIdentifier) function.getIdentifier();
-				message += "[" + id.getId().getLine() + "]: Parameter after default parameter in function \'" + id.getId().getText() + "\'.";
-				break;
-
-			case WRONG_PARAMS:
-				id = (AIdentifier) ((AFunctionCall) node).getIdentifier();
-				message += "[" + id.getId().getLine() + "]: Wrong parameters given for function named \'" + id.getId().getText() + "\'.";
-				break;
-
-			case TYPE_MISSMATCH:
-				message += ": Variable type missmatch at \'" + node.toString().stripTrailing() + "\'.";
-				break;
-
-			case ADD_TYPE_MISSMATCH:
-				message += ": Variable type missmatch in addition.";
-				break;
-
-			case MINUS_TYPE_MISSMATCH:
-				message += ": Variable type missmatch in substraction.";
-				break;
-
-			case NONE_OPERATION:
-				message += ": Illegal operation with None.";
-				break;
-
-			case IDENTICAL_FUNCTIONS:
-				break;
-
-			default:
-				message += ": Unknown error.";
+	public void checkNewFunctions(int from) {
+		for (int i = from; i < functionList.size(); i++) {
+			Function function = functionList.get(i);
+			for (int j : definitions.get(function.getName())) {
+				Function f = functionList.get(j);
+				if (j < i && (function.getTotalParams() == f.getTotalParams() || function.getParams() == f.getParams())) {
+					printError(functionNodes.get(i), ERROR_TYPES.IDENTICAL_FUNCTIONS, function.getName());
+				}
+			}
 		}
+	}
 
+	/**
+	* Reports an error
+	* @param node the node causing the error
+	* @param type the error's type
+	*/
+	public void printError(Node node, ERROR_TYPES type) {
 		if (!(node instanceof AGoal)) {
-			System.err.println(message);
-			System.exit(-1);
+			errorHandler.accept(new Diagnostic(node, type, null));
 		}
 	}
 
 	/**
-	* Prints the appropriate error messages for more advanced cases
+	* Reports an error naming a function or a module
 	* @param node the node causing the error
 	* @param type the error's type
-	* @param name the function's name
+	* @param name the function's or the module's name
 	*/
-	public static void printError(Node node, ERROR_TYPES type, String name) {
-		String message = "Error";
-		switch (type) {
-			case IDENTICAL_FUNCTIONS:
-				message += ": Function \'" + name + "\' already defined with same parameter number.";
-				break;
-
-			default:
-				message += ": Unknown error.";
-		}
+	public void printError(Node node, ERROR_TYPES type, String name) {
+		errorHandler.accept(new Diagnostic(node, type, name));
+	}
 
-		System.err.println(message);
-		System.exit(-1);
+	/**
+	* Replaces what is done with this visitor's errors, printing their message and ending the program by default.
+	* A handler that returns lets the checking go on past the error, one that throws aborts it.
+	* @param handler the new handler
+	*/
+	public void setErrorHandler(Consumer<Diagnostic> handler) {
+		errorHandler = handler;
 	}
 
 	/**
-	* Given a token's name find the matching variable's type (for AIdentifier)
-	* @param token the given token's mame
+	* Given an identifier find the matching variable's type
+	* (the type at the point of use when a flow analysis is available)
+	* @param identifier the given identifier
 	* @return the variable's type
 	*/
-	private VAR_TYPES findVariableType(String token) {
-		for (Node node : variableTypes.keySet()) {
-			if (node instanceof AIdentifier) {
-				if (token.trim().equals(((AIdentifier) node).getId().getText().trim())) {
-					return variableTypes.get(node);
-				}
+	private VAR_TYPES findVariableType(PIdentifier identifier) {
+		if (flowTypes != null) {
+			VAR_TYPES type = flowTypes.typeAt(identifier);
+			if (type != null) {
+				return type;
 			}
 		}
 
-		return null;
+		return symbolTypes.get(symbols.symbol(identifier));
 	}
 
 	/**
@@ -516,6 +515,76 @@ public class FirstVisitor extends DepthFirstAdapter {
 		}
 	}
 
+	/**
+	* Finds the type shared by all the elements of a list literal.
+	* The checked types of variables and calls hold for the last call of a
+	* function only, so just the elements computed from number literals count.
+	* @param list the list literal
+	* @return INTEGER or DOUBLE if every element is proven to have that type, otherwise UNKNOWN
+	*/
+	@SuppressWarnings("unchecked")
+	public static VAR_TYPES getListElementType(AListArithmetics list) {
+		AArgList elements = (AArgList) list.getArgList();
+		VAR_TYPES type = getProvenType(elements.getArithmetics());
+		for (ACommaExpr element : (LinkedList<ACommaExpr>) elements.getCommaExpr()) {
+			if (getProvenType(element.getArithmetics()) != type) {
+				return VAR_TYPES.UNKNOWN;
+			}
+		}
+
+		return type;
+	}
+
+	/**
+	* Finds the type an expression has whenever it is evaluated, which is known for
+	* number literals, len and the arithmetics over them
+	* @param arithmetics the given expression
+	* @return INTEGER or DOUBLE if the expression always has that type, otherwise UNKNOWN
+	*/
+	public static VAR_TYPES getProvenType(PArithmetics arithmetics) {
+		if (arithmetics instanceof ANumberArithmetics) {
+			return getNumberSubtype(((ANumberArithmetics) arithmetics).getNumber());
+		} else if (arithmetics instanceof ALenArithmetics) {
+			return VAR_TYPES.INTEGER;
+		} else if (arithmetics instanceof AArithmeticsArithmetics) {
+			return getProvenType(((AArithmeticsArithmetics) arithmetics).getArithmetics());
+		}
+
+		PArithmetics l;
+		PArithmetics r;
+		if (arithmetics instanceof APlusArithmetics) {
+			l = ((APlusArithmetics) arithmetics).getL();
+			r = ((APlusArithmetics) arithmetics).getR();
+		} else if (arithmetics instanceof AMinusArithmetics) {
+			l = ((AMinusArithmetics) arithmetics).getL();
+			r = ((AMinusArithmetics) arithmetics).getR();
+		} else if (arithmetics instanceof AMultArithmetics) {
+			l = ((AMultArithmetics) arithmetics).getL();
+			r = ((AMultArithmetics) arithmetics).getR();
+		} else if (arithmetics instanceof ADivArithmetics) {
+			l = ((ADivArithmetics) arithmetics).getL();
+			r = ((ADivArithmetics) arithmetics).getR();
+		} else if (arithmetics instanceof AExpArithmetics) {
+			l = ((AExpArithmetics) arithmetics).getL();
+			r = ((AExpArithmetics) arithmetics).getR();
+		} else {
+			return VAR_TYPES.UNKNOWN;
+		}
+
+		VAR_TYPES lType = getProvenType(l);
+		VAR_TYPES rType = getProvenType(r);
+		if (!isNumber(lType) || !isNumber(rType)) {
+			return VAR_TYPES.UNKNOWN;
+		} else if (lType == VAR_TYPES.DOUBLE || rType == VAR_TYPES.DOUBLE || arithmetics instanceof ADivArithmetics) {
+			return VAR_TYPES.DOUBLE;
+		} else if (arithmetics instanceof AExpArithmetics && !(r instanceof ANumberArithmetics)) {
+			// A negative integer exponent gives a double
+			return VAR_TYPES.UNKNOWN;
+		}
+
+		return VAR_TYPES.INTEGER;
+	}
+
 	/**
 	* Checks if a given variable type is that of a number
 	* @param type the given variable type
@@ -526,11 +595,15 @@ public class FirstVisitor extends DepthFirstAdapter {
 	}
 
 	// Getters
-	public Hashtable<String, Node> getVariables() {
+	public SymbolPool getSymbols() {
+		return symbols;
+	}
+
+	public Hashtable<Integer, Node> getVariables() {
 		return variables;
 	}
 
-	public Hashtable<String, Node> getFunctions() {
+	public Hashtable<Integer, Node> getFunctions() {
 		return functions;
 	}
 
@@ -538,6 +611,18 @@ public class FirstVisitor extends DepthFirstAdapter {
 		return variableTypes;
 	}
 
+	public Hashtable<Integer, VAR_TYPES> getSymbolTypes() {
+		return symbolTypes;
+	}
+
+	public FlowTypes getFlowTypes() {
+		return flowTypes;
+	}
+
+	public Consumer<Diagnostic> getErrorHandler() {
+		return errorHandler;
+	}
+
 	public List<Function> getFunctionList() {
 		return functionList;
 	}
@@ -0,0 +1,289 @@
+package minipython.semantics;
+
+import java.util.*;
+
+import minipython.analysis.DepthFirstAdapter;
+import minipython.node.*;
+import minipython.frontend.*;
+
+/**
+ * The FlowTypes analysis finds the type of a variable at each point it is used.
+ * For every scope it computes, per basic block, the assignments of each variable
+ * that can reach the block. The type of a use is then the combination of the
+ * types of the expressions assigned by those statements.
+ * Uses of variables that are not assigned in their own scope (such as function
+ * parameters or global variables read inside a function) have no flow type,
+ * so the checker keeps using the variable's single type for them.
+ * A '-=' or '/=' assigns the result of the operation on the types reaching
+ * it, and is unknown when the variable's previous type comes from outside
+ * the scope.
+ * 
+ * @param symbols       pool holding the ids of the identifiers read
+ * @param variableTypes hashtable containing the node and type of the expressions read
+ */
+public class FlowTypes {
+    private final SymbolPool symbols;
+    private final Hashtable<Node, FirstVisitor.VAR_TYPES> variableTypes;
+
+    private final List<ControlFlowGraph> graphs;
+    private final Hashtable<ControlFlowGraph.BasicBlock, Hashtable<Integer, Set<Node>>> outStates;
+    private final Hashtable<Node, Set<Node>> reaching;
+
+    // The assignments of the variable reaching each '-=' and '/='
+    private final Hashtable<Node, Set<Node>> previous;
+
+    public FlowTypes(SymbolPool symbols, Hashtable<Node, FirstVisitor.VAR_TYPES> variableTypes) {
+        this.symbols = symbols;
+        this.variableTypes = variableTypes;
+        this.graphs = new ArrayList<>();
+        this.outStates = new Hashtable<>();
+        this.reaching = new Hashtable<>();
+        this.previous = new Hashtable<>();
+    }
+
+    /**
+     * Builds the graphs of the top-level scope and of every function and
+     * computes the assignments reaching each block
+     * @param ast the program's tree
+     */
+    @SuppressWarnings("unchecked")
+    public void analyze(Start ast) {
+        AGoal goal = (AGoal) ast.getPGoal();
+        graphs.add(ControlFlowGraph.build(goal));
+        for (PCommands command : (LinkedList<PCommands>) goal.getCommands()) {
+            if (command instanceof AFuncCommands) {
+                graphs.add(ControlFlowGraph.build((AFunction) ((AFuncCommands) command).getFunction()));
+            }
+        }
+
+        for (ControlFlowGraph graph : graphs) {
+            solve(graph.getBlocks());
+        }
+    }
+
+    /**
+     * Recomputes the blocks affected by a changed node, such as an expression
+     * replaced by the Inliner, so that the uses it holds get their flow type.
+     * Only the block of the innermost statement containing the node is
+     * processed again, its successors follow only if the assignments leaving
+     * it have changed.
+     * @param node the node that changed
+     */
+    public void update(Node node) {
+        for (; node != null; node = node.parent()) {
+            if (!(node instanceof PStatement)) {
+                continue;
+            }
+
+            for (ControlFlowGraph graph : graphs) {
+                ControlFlowGraph.BasicBlock block = graph.getBlock(node);
+                if (block != null) {
+                    solve(Collections.singletonList(block));
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Finds the type of a variable where it is used
+     * @param identifier the identifier of the variable's use
+     * @return the variable's type or null if it has no flow type
+     */
+    public FirstVisitor.VAR_TYPES typeAt(PIdentifier identifier) {
+        Set<Node> definitions = reaching.get(identifier);
+        if (definitions == null) {
+            return null;
+        }
+
+        return joinedType(definitions, new HashSet<>());
+    }
+
+    // Helper methods
+
+    /**
+     * Propagates the reaching assignments until no block's state changes
+     * @param start the blocks to process first
+     */
+    private void solve(List<ControlFlowGraph.BasicBlock> start) {
+        Deque<ControlFlowGraph.BasicBlock> pending = new ArrayDeque<>(start);
+        Set<ControlFlowGraph.BasicBlock> queued = new HashSet<>(start);
+        while (!pending.isEmpty()) {
+            ControlFlowGraph.BasicBlock block = pending.pop();
+            queued.remove(block);
+
+            // Merge the states of the predecessors
+            Hashtable<Integer, Set<Node>> state = new Hashtable<>();
+            for (ControlFlowGraph.BasicBlock predecessor : block.getPredecessors()) {
+                Hashtable<Integer, Set<Node>> predecessorState = outStates.get(predecessor);
+                if (predecessorState == null) {
+                    continue;
+                }
+                for (Map.Entry<Integer, Set<Node>> entry : predecessorState.entrySet()) {
+                    Set<Node> current = state.get(entry.getKey());
+                    if (current == null) {
+                        state.put(entry.getKey(), entry.getValue());
+                    } else if (!current.containsAll(entry.getValue())) {
+                        Set<Node> merged = new HashSet<>(current);
+                        merged.addAll(entry.getValue());
+                        state.put(entry.getKey(), merged);
+                    }
+                }
+            }
+
+            for (PStatement statement : block.getStatements()) {
+                transfer(statement, state);
+            }
+
+            if (!state.equals(outStates.get(block))) {
+                outStates.put(block, state);
+                for (ControlFlowGraph.BasicBlock successor : block.getSuccessors()) {
+                    if (queued.add(successor)) {
+                        pending.add(successor);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Records the assignments reaching the uses of a statement and
+     * applies the statement's own assignment
+     * @param statement the statement
+     * @param state     the assignments reaching the statement, updated in place
+     */
+    @SuppressWarnings("unchecked")
+    private void transfer(PStatement statement, Hashtable<Integer, Set<Node>> state) {
+        List<Node> expressions = new ArrayList<>();
+        PIdentifier assigned = null;
+        if (statement instanceof AIfStatement) {
+            expressions.add(((AIfStatement) statement).getComparisonLvlFour());
+        } else if (statement instanceof AWhileStatement) {
+            expressions.add(((AWhileStatement) statement).getComparisonLvlFour());
+        } else if (statement instanceof AForStatement) {
+            assigned = ((AForStatement) statement).getId1();
+        } else if (statement instanceof AReturnStatement) {
+            expressions.add(((AReturnStatement) statement).getArithmetics());
+        } else if (statement instanceof APrintStatement) {
+            expressions.add(((APrintStatement) statement).getArithmetics());
+            expressions.addAll(((APrintStatement) statement).getCommaExpr());
+        } else if (statement instanceof AAssignmentStatement) {
+            expressions.add(((AAssignmentStatement) statement).getArithmetics());
+            assigned = ((AAssignmentStatement) statement).getIdentifier();
+        } else if (statement instanceof AMinusassignmentStatement) {
+            expressions.add(((AMinusassignmentStatement) statement).getArithmetics());
+            assigned = ((AMinusassignmentStatement) statement).getIdentifier();
+        } else if (statement instanceof ADivassignmentStatement) {
+            expressions.add(((ADivassignmentStatement) statement).getArithmetics());
+            assigned = ((ADivassignmentStatement) statement).getIdentifier();
+        } else if (statement instanceof AListassignmentStatement) {
+            expressions.add(((AListassignmentStatement) statement).getIndex());
+            expressions.add(((AListassignmentStatement) statement).getValue());
+        } else if (statement instanceof AAssertStatement) {
+            expressions.add(((AAssertStatement) statement).getArithmetics());
+            expressions.addAll(((AAssertStatement) statement).getCommaExpr());
+        } else if (statement instanceof ACallStatement) {
+            expressions.add(((ACallStatement) statement).getFunctionCall());
+        }
+
+        // The uses see the assignments made before the statement
+        for (Node expression : expressions) {
+            expression.apply(new DepthFirstAdapter() {
+                @Override
+                public void outAIdentifierArithmetics(AIdentifierArithmetics node) {
+                    Set<Node> definitions = state.get(symbols.symbol(node.getIdentifier()));
+                    if (definitions == null) {
+                        reaching.remove(node.getIdentifier());
+                    } else {
+                        reaching.put(node.getIdentifier(), definitions);
+                    }
+                }
+            });
+        }
+
+        if (assigned != null) {
+            Integer name = symbols.symbol(assigned);
+            if (statement instanceof AMinusassignmentStatement || statement instanceof ADivassignmentStatement) {
+                previous.put(statement, state.getOrDefault(name, Collections.emptySet()));
+            }
+            state.put(name, Collections.singleton(statement));
+        }
+    }
+
+    /**
+     * Combines the types given by the assignments that can reach a point
+     * @param definitions the assigning statements
+     * @param computing   the '-=' and '/=' whose type is being found
+     * @return the combined type or null if none is known yet
+     */
+    private FirstVisitor.VAR_TYPES joinedType(Set<Node> definitions, Set<Node> computing) {
+        FirstVisitor.VAR_TYPES type = null;
+        for (Node definition : definitions) {
+            FirstVisitor.VAR_TYPES definitionType = assignedType(definition, computing);
+            if (definitionType != null) {
+                type = type == null ? definitionType : join(type, definitionType);
+            }
+        }
+
+        return type;
+    }
+
+    /**
+     * Finds the type given to a variable by one of its assignments
+     * @param definition the assigning statement
+     * @param computing  the '-=' and '/=' whose type is being found
+     * @return the assigned type or null if it is not known yet
+     */
+    private FirstVisitor.VAR_TYPES assignedType(Node definition, Set<Node> computing) {
+        if (definition instanceof AAssignmentStatement) {
+            return variableTypes.get(((AAssignmentStatement) definition).getArithmetics());
+        } else if (definition instanceof AForStatement) {
+            return FirstVisitor.VAR_TYPES.UNKNOWN;
+        }
+
+        // A loop leading back to the same '-=' or '/=' adds no other type
+        if (!computing.add(definition)) {
+            return null;
+        }
+        FirstVisitor.VAR_TYPES before = joinedType(previous.getOrDefault(definition, Collections.emptySet()), computing);
+        computing.remove(definition);
+
+        FirstVisitor.VAR_TYPES value;
+        if (definition instanceof AMinusassignmentStatement) {
+            value = variableTypes.get(((AMinusassignmentStatement) definition).getArithmetics());
+        } else {
+            value = variableTypes.get(((ADivassignmentStatement) definition).getArithmetics());
+        }
+
+        // The previous type is unknown when it comes from outside the scope
+        if (before == null || value == null || !FirstVisitor.isNumber(before) || !FirstVisitor.isNumber(value)) {
+            return FirstVisitor.VAR_TYPES.UNKNOWN;
+        } else if (definition instanceof AMinusassignmentStatement
+                && before == FirstVisitor.VAR_TYPES.INTEGER && value == FirstVisitor.VAR_TYPES.INTEGER) {
+            return FirstVisitor.VAR_TYPES.INTEGER;
+        }
+
+        return FirstVisitor.VAR_TYPES.DOUBLE;
+    }
+
+    /**
+     * Combines the types a variable may have when two paths meet
+     * @param a the first type
+     * @param b the second type
+     * @return the combined type
+     */
+    public static FirstVisitor.VAR_TYPES join(FirstVisitor.VAR_TYPES a, FirstVisitor.VAR_TYPES b) {
+        if (a == b) {
+            return a;
+        } else if (FirstVisitor.isNumber(a) && FirstVisitor.isNumber(b)) {
+            return FirstVisitor.VAR_TYPES.DOUBLE;
+        }
+
+        return FirstVisitor.VAR_TYPES.UNKNOWN;
+    }
+
+    // Getters
+    public List<ControlFlowGraph> getGraphs() {
+        return graphs;
+    }
+}
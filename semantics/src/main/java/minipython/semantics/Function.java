@@ -1,3 +1,5 @@
+package minipython.semantics;
+
 /**
  * Data class for storing function related information
  * @param name the function's name
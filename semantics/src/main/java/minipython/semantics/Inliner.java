@@ -0,0 +1,263 @@
+package minipython.semantics;
+
+import java.util.*;
+
+import minipython.analysis.DepthFirstAdapter;
+import minipython.node.*;
+import minipython.frontend.*;
+
+/**
+ * The Inliner replaces calls to small functions with the expression they return.
+ * A function is inlined when it has a single definition, its body is a return
+ * statement and it is not part of a recursion cycle. The parameters are bound
+ * to the call's arguments or to their default values. The types of the
+ * resulting expression are inferred again when a flow analysis gives the
+ * types of the variables at the call, otherwise it keeps the call's type.
+ * A call is kept when inlining could change what it does: when an argument
+ * is more than a name or a literal, as it could be evaluated in another order,
+ * several times or not at all, and when a name the body reads from outside
+ * the function is declared by the function making the call.
+ * 
+ * @param symbols      pool holding the ids of the identifiers read
+ * @param callGraph    call graph of the program being optimized
+ * @param firstVisitor visitor holding the tables filled while checking the program
+ */
+public class Inliner extends DepthFirstAdapter {
+    private final SymbolPool symbols;
+    private final CallGraph callGraph;
+    private final FirstVisitor firstVisitor;
+    private int inlined;
+
+    public Inliner(SymbolPool symbols, CallGraph callGraph, FirstVisitor firstVisitor) {
+        this.symbols = symbols;
+        this.callGraph = callGraph;
+        this.firstVisitor = firstVisitor;
+    }
+
+    @Override
+    public void outAFunctionArithmetics(AFunctionArithmetics node) {
+        AFunctionCall call = (AFunctionCall) node.getFunctionCall();
+        AFunction function = findInlinable(call);
+        if (function == null) {
+            return;
+        }
+
+        // Bind each parameter to its argument or default value
+        Hashtable<Integer, PArithmetics> bindings = bind(function, call);
+        if (bindings == null) {
+            return;
+        }
+
+        // The names the body reads from outside must mean the same at the call
+        PArithmetics body = ((AReturnStatement) function.getStatement()).getArithmetics();
+        if (!canMove(body, bindings, node)) {
+            return;
+        }
+
+        // Substitute the parameters in a copy of the returned expression
+        PArithmetics replacement = substitute((PArithmetics) body.clone(), bindings);
+        node.replaceBy(replacement);
+        FirstVisitor.VAR_TYPES type = firstVisitor.getVariableTypes().remove(node);
+        inlined++;
+
+        // Without a flow analysis a variable's type is the last one it is given in the
+        // whole program, so the expression keeps the type checked for the call instead
+        if (firstVisitor.getFlowTypes() == null) {
+            if (type != null) {
+                firstVisitor.getVariableTypes().put(replacement, type);
+            }
+            replacement.apply(this);
+            return;
+        }
+
+        // The variables moved to the call are typed from the assignments reaching it
+        firstVisitor.getFlowTypes().update(replacement);
+
+        // Inline the calls copied from the function's body and infer the new types
+        replacement.apply(this);
+        FirstVisitor typing = new FirstVisitor(symbols, firstVisitor.getVariables(), firstVisitor.getFunctions(),
+                firstVisitor.getVariableTypes(), firstVisitor.getSymbolTypes(), firstVisitor.getFlowTypes());
+        typing.setErrorHandler(firstVisitor.getErrorHandler());
+        replacement.apply(typing);
+    }
+
+    // Helper methods
+
+    /**
+     * Finds the definition of a called function if it can be inlined
+     * @param call the function call
+     * @return the function's definition or null
+     */
+    private AFunction findInlinable(AFunctionCall call) {
+        Integer name = symbols.symbol(call.getIdentifier());
+        List<AFunction> definitions = callGraph.getDefinitions().get(name);
+        if (definitions == null || definitions.size() != 1 || callGraph.isRecursive(name)) {
+            return null;
+        }
+
+        AFunction function = definitions.get(0);
+        if (!(function.getStatement() instanceof AReturnStatement)) {
+            return null;
+        }
+
+        return function;
+    }
+
+    /**
+     * Binds the function's parameters to the expressions given in the call
+     * @param function the function's definition
+     * @param call     the function call
+     * @return the expression of each parameter's symbol id or null if the call can not be inlined
+     */
+    @SuppressWarnings("unchecked")
+    private Hashtable<Integer, PArithmetics> bind(AFunction function, AFunctionCall call) {
+        // Get the parameters and their default values
+        List<PIdentifier> parameters = new ArrayList<>();
+        List<PArithmetics> defaults = new ArrayList<>();
+        LinkedList<AArgument> arguments = function.getArgument();
+        if (arguments.size() > 0) {
+            AArgument first = arguments.get(0);
+            parameters.add(first.getIdentifier());
+            LinkedList<AAssignValue> value = first.getAssignValue();
+            defaults.add(value.size() > 0 ? value.get(0).getArithmetics() : null);
+
+            for (AMoreAssignments argument : (LinkedList<AMoreAssignments>) first.getMoreAssignments()) {
+                parameters.add(argument.getIdentifier());
+                value = argument.getAssignValue();
+                defaults.add(value.size() > 0 ? value.get(0).getArithmetics() : null);
+            }
+        }
+
+        // Get the arguments given in the call
+        List<PArithmetics> given = new ArrayList<>();
+        LinkedList<AArgList> argumentsCall = call.getArgList();
+        if (argumentsCall.size() > 0) {
+            given.add(argumentsCall.get(0).getArithmetics());
+            for (ACommaExpr argument : (LinkedList<ACommaExpr>) argumentsCall.get(0).getCommaExpr()) {
+                given.add(argument.getArithmetics());
+            }
+        }
+
+        if (given.size() > parameters.size()) {
+            return null;
+        }
+
+        Hashtable<Integer, PArithmetics> bindings = new Hashtable<>();
+        for (int i = 0; i < parameters.size(); i++) {
+            PArithmetics value = i < given.size() ? given.get(i) : defaults.get(i);
+
+            // Arguments may be copied or dropped, so they must not do anything but be read
+            if (value == null || !isAtom(value)) {
+                return null;
+            }
+            bindings.put(symbols.symbol(parameters.get(i)), value);
+        }
+
+        return bindings;
+    }
+
+    /**
+     * Replaces the parameters used in an expression with copies of their bindings
+     * @param expression the expression to rewrite
+     * @param bindings   the expression of each parameter's symbol id
+     * @return the rewritten expression
+     */
+    private PArithmetics substitute(PArithmetics expression, Hashtable<Integer, PArithmetics> bindings) {
+        if (expression instanceof AIdentifierArithmetics) {
+            PArithmetics value = bindings.get(symbols.symbol(((AIdentifierArithmetics) expression).getIdentifier()));
+            return value == null ? expression : (PArithmetics) value.clone();
+        }
+
+        List<AIdentifierArithmetics> uses = new ArrayList<>();
+        expression.apply(new DepthFirstAdapter() {
+            @Override
+            public void outAIdentifierArithmetics(AIdentifierArithmetics node) {
+                if (bindings.containsKey(symbols.symbol(node.getIdentifier()))) {
+                    uses.add(node);
+                }
+            }
+        });
+
+        for (AIdentifierArithmetics use : uses) {
+            use.replaceBy((PArithmetics) bindings.get(symbols.symbol(use.getIdentifier())).clone());
+        }
+
+        return expression;
+    }
+
+    /**
+     * Checks whether an expression is a name or a literal, whose evaluation can not fail
+     */
+    private static boolean isAtom(PArithmetics expression) {
+        return expression instanceof AIdentifierArithmetics || expression instanceof ANumberArithmetics
+            || expression instanceof AStrlitArithmetics || expression instanceof ANoneArithmetics;
+    }
+
+    /**
+     * Checks whether a function's returned expression can replace a call.
+     * The parameters must only be read as variables, so that all their uses
+     * are substituted, and the other names must not be declared by the
+     * function the call is in, which would capture them.
+     * @param body     the returned expression
+     * @param bindings the expression of each parameter's symbol id
+     * @param call     the call to replace
+     * @return true if the expression means the same at the call
+     */
+    private boolean canMove(PArithmetics body, Hashtable<Integer, PArithmetics> bindings, Node call) {
+        Set<Integer> declared = declaredNames(call);
+        boolean[] movable = { true };
+        body.apply(new DepthFirstAdapter() {
+            @Override
+            public void inAIdentifier(AIdentifier node) {
+                Node parent = node.parent();
+                if (parent instanceof AFunctionCall) {
+                    return;  // Functions are looked up in their own table
+                }
+
+                Integer name = symbols.symbol(node);
+                if (bindings.containsKey(name) ? !(parent instanceof AIdentifierArithmetics) : declared.contains(name)) {
+                    movable[0] = false;
+                }
+            }
+        });
+
+        return movable[0];
+    }
+
+    /**
+     * Finds the names declared by the function containing a node
+     * @param node the given node
+     * @return the symbol ids of the function's parameters and of the names it assigns or imports,
+     *         none if the node is outside the functions
+     */
+    private Set<Integer> declaredNames(Node node) {
+        Set<Integer> names = new HashSet<>();
+        while (node != null && !(node instanceof AFunction)) {
+            node = node.parent();
+        }
+        if (node == null) {
+            return names;
+        }
+
+        node.apply(new DepthFirstAdapter() {
+            @Override
+            public void inAIdentifier(AIdentifier identifier) {
+                Node parent = identifier.parent();
+                if (parent instanceof AArgument || parent instanceof AMoreAssignments
+                        || parent instanceof AAssignmentStatement || parent instanceof AMinusassignmentStatement
+                        || parent instanceof ADivassignmentStatement || parent instanceof AListassignmentStatement
+                        || parent instanceof AForStatement || parent instanceof AAsId
+                        || parent instanceof AFromStatement || parent instanceof AMoreIds) {
+                    names.add(symbols.symbol(identifier));
+                }
+            }
+        });
+
+        return names;
+    }
+
+    // Getters
+    public int getInlined() {
+        return inlined;
+    }
+}
@@ -0,0 +1,450 @@
+package minipython.semantics;
+
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+
+import minipython.analysis.DepthFirstAdapter;
+import minipython.parser.Parser;
+import minipython.node.*;
+import minipython.frontend.*;
+
+/**
+ * Resolves the modules named by import and from statements.
+ * A module 'a.b' is the file 'a/b.py' under one of the search path's
+ * directories. Every module is parsed and checked once per loader, its
+ * tables are cached and shared by all of its importers. Modules are parsed
+ * in parallel, each one as soon as an import naming it is read, and checked
+ * in parallel, each one as soon as the modules it imports have been checked.
+ * A module imported as 'm' binds its functions as 'm.f', the name its calls
+ * 'm.f()' are looked up with. A call to an imported function checks the
+ * function's body again with the call's argument types, against the tables
+ * of the function's own module, which are only read: the types the call
+ * gives are kept in small tables placed in front of them.
+ */
+public class ModuleLoader {
+    private final SymbolPool symbols;
+    private final List<Path> searchPath;
+    private final ConcurrentHashMap<Path, CompletableFuture<Module>> parsed;
+    private final ConcurrentHashMap<Path, CompletableFuture<Module>> checked;
+    private final ConcurrentHashMap<Start, Module> trees;
+    private Consumer<Diagnostic> errorHandler;
+
+    /**
+     * @param symbols    the pool shared by the program and all of its modules
+     * @param searchPath the directories searched for modules, in order
+     */
+    public ModuleLoader(SymbolPool symbols, List<Path> searchPath) {
+        this.symbols = symbols;
+        this.searchPath = new ArrayList<>(searchPath);
+        this.parsed = new ConcurrentHashMap<>();
+        this.checked = new ConcurrentHashMap<>();
+        this.trees = new ConcurrentHashMap<>();
+        this.errorHandler = FirstVisitor.EXIT_ON_ERROR;
+    }
+
+    /**
+     * Replaces what is done with the errors found in the imports and in the modules
+     * @param handler the new handler, called from the threads checking the modules too
+     */
+    public void setErrorHandler(Consumer<Diagnostic> handler) {
+        this.errorHandler = handler;
+    }
+
+    /**
+     * Loads the modules imported by a program and declares the imported
+     * names in the program's tables
+     * @param ast         the program's tree
+     * @param variables   the program's variables
+     * @param functions   the program's functions
+     * @param symbolTypes the program's variable and function types
+     */
+    public void importInto(Start ast, Hashtable<Integer, Node> variables, Hashtable<Integer, Node> functions,
+            Hashtable<Integer, FirstVisitor.VAR_TYPES> symbolTypes) throws Exception {
+        List<Import> imports = collectImports(ast);
+
+        // Parse every module reachable through the imports, then check them
+        List<CompletableFuture<Void>> parsing = new ArrayList<>();
+        for (Import anImport : imports) {
+            parsing.add(discover(anImport));
+        }
+        join(CompletableFuture.allOf(parsing.toArray(new CompletableFuture<?>[0])));
+
+        Set<Path> visiting = new HashSet<>();
+        for (Import anImport : imports) {
+            if (anImport.path != null) {
+                schedule(anImport.path, visiting);
+            }
+        }
+
+        for (Import anImport : imports) {
+            if (anImport.path != null) {
+                declare(anImport, join(checked.get(anImport.path)), variables, functions, symbolTypes);
+            }
+        }
+    }
+
+    /**
+     * Checks the body of an imported function with the argument types of a call to it.
+     * The function's module is not changed, the types found by the check are put in
+     * tables read before the module's own, which only hold the types of this call.
+     * @param function   the called function
+     * @param givenTypes the types of the arguments given to the call
+     * @param checking   the functions whose bodies are being checked, which are not checked again
+     */
+    void checkCall(AFunction function, List<FirstVisitor.VAR_TYPES> givenTypes, Set<AFunction> checking) {
+        // A module of an import cycle that is still being checked keeps its tables to itself
+        Module module = trees.get(SecondVisitor.root(function));
+        if (module == null || !module.checked) {
+            return;
+        }
+
+        SecondVisitor visitor = new SecondVisitor(symbols, module.variables, module.functions,
+                new Overlay<>(module.variableTypes), new Overlay<>(module.symbolTypes));
+        visitor.setModuleLoader(this);
+        visitor.setErrorHandler(errorHandler);
+        visitor.checkBody(function, givenTypes, checking);
+    }
+
+    /**
+     * Finds the file of a module on the search path
+     * @param name the module's dotted name
+     * @return the module's file or null if no directory contains it
+     */
+    public Path resolve(String name) {
+        String file = name.replace('.', File.separatorChar) + ".py";
+        for (Path directory : searchPath) {
+            Path path = directory.resolve(file);
+            if (Files.isRegularFile(path)) {
+                return path.toAbsolutePath().normalize();
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Builds a module's dotted name
+     * @param node the module statement
+     * @return the name, e.g. 'a.b'
+     */
+    @SuppressWarnings("unchecked")
+    public static String moduleName(AModuleStatement node) {
+        StringBuilder name = new StringBuilder();
+        for (AIdDot part : (LinkedList<AIdDot>) node.getIdDot()) {
+            name.append(((AIdentifier) part.getIdentifier()).getId().getText()).append('.');
+        }
+
+        return name.append(((AIdentifier) node.getIdentifier()).getId().getText()).toString();
+    }
+
+    // Helper methods
+
+    /**
+     * Resolves an import's module and starts parsing it, each module it imports
+     * being started in turn as soon as it is parsed.
+     * A module already started is waited for by the import that started it.
+     * @return a future completed once the module and the modules started through it are parsed
+     */
+    private CompletableFuture<Void> discover(Import anImport) {
+        Path path = resolve(anImport.name);
+        anImport.path = path;
+        if (path == null) {
+            errorHandler.accept(new Diagnostic(anImport.module, FirstVisitor.ERROR_TYPES.UNDEFINED_MODULE, anImport.name));
+            return CompletableFuture.completedFuture(null);
+        }
+
+        CompletableFuture<Module> module = new CompletableFuture<>();
+        if (parsed.putIfAbsent(path, module) != null) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        CompletableFuture.runAsync(() -> {
+            try {
+                module.complete(parse(path, anImport.name));
+            } catch (Throwable e) {
+                module.completeExceptionally(e);
+            }
+        });
+
+        return module.thenCompose(parsedModule -> {
+            List<CompletableFuture<Void>> nested = new ArrayList<>();
+            for (Import nestedImport : parsedModule.imports) {
+                nested.add(discover(nestedImport));
+            }
+
+            return CompletableFuture.allOf(nested.toArray(new CompletableFuture<?>[0]));
+        });
+    }
+
+    /**
+     * Parses a module's file
+     */
+    private Module parse(Path path, String name) throws Exception {
+        Start ast = new Parser(
+            new InterningLexer(
+            new PushbackReader(
+            new FileReader(path.toFile()), 1024), symbols)).parse();
+        Module module = new Module(name, ast, collectImports(ast));
+        trees.put(ast, module);
+
+        return module;
+    }
+
+    /**
+     * Waits for a task, throwing the exception it failed with
+     */
+    private static <T> T join(CompletableFuture<T> future) throws Exception {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof Exception) {
+                throw (Exception) e.getCause();
+            } else if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Creates the task checking a module once the modules it imports are checked.
+     * An import that closes a cycle is not waited for.
+     */
+    private synchronized void schedule(Path path, Set<Path> visiting) {
+        if (checked.containsKey(path)) {
+            return;
+        }
+
+        Module module = parsed.get(path).join();
+        visiting.add(path);
+        List<CompletableFuture<Module>> dependencies = new ArrayList<>();
+        for (Import anImport : module.imports) {
+            if (anImport.path != null && !visiting.contains(anImport.path)) {
+                schedule(anImport.path, visiting);
+                dependencies.add(checked.get(anImport.path));
+            }
+        }
+        visiting.remove(path);
+
+        checked.put(path, CompletableFuture
+            .allOf(dependencies.toArray(new CompletableFuture<?>[0]))
+            .thenApplyAsync(ignored -> check(module)));
+    }
+
+    /**
+     * Applies the visitors to a module whose imports are already checked
+     */
+    private Module check(Module module) {
+        for (Import anImport : module.imports) {
+            if (anImport.path == null) {
+                continue;
+            }
+            CompletableFuture<Module> future = checked.get(anImport.path);
+            Module imported = future == null ? null : future.getNow(null);
+            if (imported == null) {
+                imported = summary(parsed.get(anImport.path).join());
+            }
+            declare(anImport, imported, module.variables, module.functions, module.symbolTypes);
+        }
+
+        FirstVisitor firstVisitor = new FirstVisitor(symbols, module.variables, module.functions,
+                module.variableTypes, module.symbolTypes);
+        firstVisitor.setErrorHandler(errorHandler);
+        module.ast.apply(firstVisitor);
+        SecondVisitor secondVisitor = new SecondVisitor(symbols, module.variables, module.functions,
+                module.variableTypes, module.symbolTypes);
+        secondVisitor.setModuleLoader(this);
+        secondVisitor.setErrorHandler(errorHandler);
+        module.ast.apply(secondVisitor);
+        module.checked = true;
+
+        return module;
+    }
+
+    /**
+     * Lists the top-level names of a module that has not been checked yet,
+     * as happens within an import cycle, all of them with an unknown type
+     */
+    @SuppressWarnings("unchecked")
+    private Module summary(Module module) {
+        Module summary = new Module(module.name, module.ast, module.imports);
+        for (PCommands command : (LinkedList<PCommands>) ((AGoal) module.ast.getPGoal()).getCommands()) {
+            if (command instanceof AFuncCommands) {
+                PIdentifier name = ((AFunction) ((AFuncCommands) command).getFunction()).getIdentifier();
+                summary.functions.put(symbols.symbol(name), name);
+                summary.symbolTypes.put(symbols.symbol(name), FirstVisitor.VAR_TYPES.UNKNOWN);
+            } else if (((AStatCommands) command).getStatement() instanceof AAssignmentStatement) {
+                PIdentifier name = ((AAssignmentStatement) ((AStatCommands) command).getStatement()).getIdentifier();
+                summary.variables.put(symbols.symbol(name), name);
+                summary.symbolTypes.put(symbols.symbol(name), FirstVisitor.VAR_TYPES.UNKNOWN);
+            }
+        }
+
+        return summary;
+    }
+
+    /**
+     * Declares the names an import brings into scope along with their types
+     */
+    private void declare(Import anImport, Module module, Hashtable<Integer, Node> variables,
+            Hashtable<Integer, Node> functions, Hashtable<Integer, FirstVisitor.VAR_TYPES> symbolTypes) {
+        // A module bound to a name brings its functions as qualified names
+        if (anImport.alias != null) {
+            String alias = anImport.alias.getId().getText();
+            for (Map.Entry<Integer, Node> function : module.functions.entrySet()) {
+                Integer qualified = symbols.intern(SymbolPool.qualify(alias, symbols.name(function.getKey())));
+                functions.put(qualified, function.getValue());
+                FirstVisitor.VAR_TYPES type = module.symbolTypes.get(function.getKey());
+                if (type != null) {
+                    symbolTypes.put(qualified, type);
+                }
+            }
+        }
+
+        for (int i = 0; i < anImport.names.size(); i++) {
+            AIdentifier name = anImport.names.get(i);
+            Integer exported = symbols.symbol(name);
+            Integer alias = symbols.symbol(anImport.aliases.get(i));
+
+            if (module.functions.containsKey(exported)) {
+                functions.put(alias, module.functions.get(exported));
+            } else if (module.variables.containsKey(exported)) {
+                variables.put(alias, module.variables.get(exported));
+            } else {
+                errorHandler.accept(new Diagnostic(name, FirstVisitor.ERROR_TYPES.UNDEFINED_IMPORT, module.name));
+            }
+
+            FirstVisitor.VAR_TYPES type = module.symbolTypes.get(exported);
+            if (type != null) {
+                symbolTypes.put(alias, type);
+            }
+        }
+    }
+
+    /**
+     * Finds the import and from statements of a tree
+     */
+    @SuppressWarnings("unchecked")
+    private static List<Import> collectImports(Start ast) {
+        List<Import> imports = new ArrayList<>();
+        ast.apply(new DepthFirstAdapter() {
+            @Override
+            public void inAImportStatement(AImportStatement node) {
+                imports.add(Import.bound((AModuleStatement) node.getL(), node.getAsId()));
+                for (AMoreModulesStatement more : (LinkedList<AMoreModulesStatement>) node.getR()) {
+                    imports.add(Import.bound((AModuleStatement) more.getStatement(), more.getAsId()));
+                }
+            }
+
+            @Override
+            public void inAFromStatement(AFromStatement node) {
+                Import anImport = new Import((AModuleStatement) node.getStatement());
+                anImport.add(node.getIdentifier(), node.getAsId());
+                for (AMoreIds more : (LinkedList<AMoreIds>) node.getMoreIds()) {
+                    anImport.add(more.getIdentifier(), more.getAsId());
+                }
+                imports.add(anImport);
+            }
+        });
+
+        return imports;
+    }
+
+    /**
+     * A module statement and the names imported from it, with their aliases,
+     * or the name the module itself is bound to
+     */
+    private static class Import {
+        private final AModuleStatement module;
+        private final String name;
+        private final List<AIdentifier> names;
+        private final List<AIdentifier> aliases;
+        private AIdentifier alias;
+        private Path path;
+
+        private Import(AModuleStatement module) {
+            this.module = module;
+            this.name = moduleName(module);
+            this.names = new ArrayList<>();
+            this.aliases = new ArrayList<>();
+        }
+
+        /**
+         * Creates the import of a whole module, bound to its alias or to its name
+         * when it has no package, as 'import a.b' is not reachable through a single name
+         */
+        private static Import bound(AModuleStatement module, LinkedList<?> asId) {
+            Import anImport = new Import(module);
+            if (!asId.isEmpty()) {
+                anImport.alias = (AIdentifier) ((AAsId) asId.getFirst()).getIdentifier();
+            } else if (module.getIdDot().isEmpty()) {
+                anImport.alias = (AIdentifier) module.getIdentifier();
+            }
+
+            return anImport;
+        }
+
+        private void add(PIdentifier name, LinkedList<?> asId) {
+            names.add((AIdentifier) name);
+            aliases.add((AIdentifier) (asId.isEmpty() ? name : ((AAsId) asId.getFirst()).getIdentifier()));
+        }
+    }
+
+    /**
+     * A table whose entries are put in front of a table that is only read, so
+     * that a check can give its own types to a cached module's names and nodes.
+     * Removing an entry only removes it from the front table.
+     */
+    private static class Overlay<K, V> extends Hashtable<K, V> {
+        private static final long serialVersionUID = 1L;
+        private final Hashtable<K, V> base;
+
+        private Overlay(Hashtable<K, V> base) {
+            this.base = base;
+        }
+
+        @Override
+        public synchronized V get(Object key) {
+            V value = super.get(key);
+            return value != null ? value : base.get(key);
+        }
+
+        @Override
+        public synchronized V getOrDefault(Object key, V defaultValue) {
+            V value = get(key);
+            return value != null ? value : defaultValue;
+        }
+
+        @Override
+        public synchronized boolean containsKey(Object key) {
+            return super.containsKey(key) || base.containsKey(key);
+        }
+    }
+
+    /**
+     * A parsed module and the tables filled in while checking it
+     */
+    private static class Module {
+        private final String name;
+        private final Start ast;
+        private final List<Import> imports;
+        private final Hashtable<Integer, Node> variables;
+        private final Hashtable<Integer, Node> functions;
+        private final Hashtable<Node, FirstVisitor.VAR_TYPES> variableTypes;
+        private final Hashtable<Integer, FirstVisitor.VAR_TYPES> symbolTypes;
+        private volatile boolean checked;
+
+        private Module(String name, Start ast, List<Import> imports) {
+            this.name = name;
+            this.ast = ast;
+            this.imports = imports;
+            this.variables = new Hashtable<>();
+            this.functions = new Hashtable<>();
+            this.variableTypes = new Hashtable<>();
+            this.symbolTypes = new Hashtable<>();
+        }
+    }
+}
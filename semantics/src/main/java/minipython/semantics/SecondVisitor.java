@@ -0,0 +1,556 @@
+package minipython.semantics;
+
+import java.util.*;
+import java.util.function.Consumer;
+
+import minipython.analysis.DepthFirstAdapter;
+import minipython.node.*;
+import minipython.frontend.*;
+
+/**
+ * The SecondVisitor does the second traversal of the code to handle
+ * function calls that appear before their declaration.
+ * Additionally, variable declarations located in the body of a function are
+ * handled by this visitor.
+ * 
+ * @param symbols       pool holding the ids of the identifiers read
+ * @param variables     hashtable containing the symbol id and node of the variables read
+ * @param funcitons     hashtable containing the symbol id and node of the functions read
+ * @param variableTypes hashtable containing the node and type of the expressions read
+ * @param symbolTypes   hashtable containing the symbol id and type of the variables and functions read
+ * @param flowTypes     flow analysis giving the type of a variable where it is used, or null
+ *
+ * A call to a function imported from another module has the function's body
+ * checked by the module loader, when one is set.
+ */
+public class SecondVisitor extends DepthFirstAdapter {
+    private final SymbolPool symbols;
+    private final Hashtable<Integer, Node> variables;
+    private final Hashtable<Integer, Node> functions;
+    private final Hashtable<Node, FirstVisitor.VAR_TYPES> variableTypes;
+    private final Hashtable<Integer, FirstVisitor.VAR_TYPES> symbolTypes;
+    private final FlowTypes flowTypes;
+    private Set<AFunction> checking;
+    private ModuleLoader loader;
+    private Consumer<Diagnostic> errorHandler;
+
+    public SecondVisitor(SymbolPool symbols, Hashtable<Integer, Node> variables, Hashtable<Integer, Node> functions, 
+            Hashtable<Node, FirstVisitor.VAR_TYPES> variableTypes, Hashtable<Integer, FirstVisitor.VAR_TYPES> symbolTypes) {
+        this(symbols, variables, functions, variableTypes, symbolTypes, null);
+    }
+
+    public SecondVisitor(SymbolPool symbols, Hashtable<Integer, Node> variables, Hashtable<Integer, Node> functions, 
+            Hashtable<Node, FirstVisitor.VAR_TYPES> variableTypes, Hashtable<Integer, FirstVisitor.VAR_TYPES> symbolTypes,
+            FlowTypes flowTypes) {
+        this.symbols = symbols;
+		this.variables = variables;
+		this.functions = functions;
+        this.variableTypes = variableTypes;
+        this.symbolTypes = symbolTypes;
+        this.flowTypes = flowTypes;
+        this.checking = new HashSet<>();
+        this.errorHandler = FirstVisitor.EXIT_ON_ERROR;
+	}
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void outAFunctionCall(AFunctionCall node) {
+        // Get the function's symbol, qualified for a call through a module
+        Integer name = symbols.callee(node);
+
+        // Get the types of the arguments from the call statement
+        LinkedList<AArgList> argumentsCall = node.getArgList();
+        List<FirstVisitor.VAR_TYPES> givenTypes = new ArrayList<>();
+        if (argumentsCall.size() > 0) {
+            givenTypes.add(argumentType(argumentsCall.get(0).getArithmetics()));
+            for (ACommaExpr argument : (LinkedList<ACommaExpr>) argumentsCall.get(0).getCommaExpr()) {
+                givenTypes.add(argumentType(argument.getArithmetics()));
+            }
+        }
+
+        // Ensure that the function has been defined
+        if (!functions.containsKey(name)) {
+            undefinedFunction(node, givenTypes);
+            return;
+        }
+
+        checkCall(node, (AFunction) (functions.get(name).parent()), givenTypes);
+    }
+
+    /**
+     * Checks a call against the called function's definition, then checks the
+     * function's body with the arguments' types bound to its parameters
+     * @param node       the call, where its errors are reported
+     * @param function   the called function
+     * @param givenTypes the types of the arguments given to the call
+     */
+    @SuppressWarnings("unchecked")
+    public void checkCall(Node node, AFunction function, List<FirstVisitor.VAR_TYPES> givenTypes) {
+        // Retrieve the arguments from the function's definition
+        LinkedList<AArgument> arguments = function.getArgument();
+        List<String> expectedArguments = new ArrayList<>();
+
+        // Cast the first argument into an AIdentifier and then retrieve the name of the token
+        int defaultIndex = 0;
+        if (arguments.size() > 0) {
+            expectedArguments.add(((AIdentifier) arguments.get(0).getIdentifier()).getId().getText());
+            if (arguments.get(0).getAssignValue().size() > 0) {
+                defaultIndex = 1;
+            }
+
+            for (AMoreAssignments argument : ((LinkedList<AMoreAssignments>) arguments.get(0).getMoreAssignments())) {
+                expectedArguments.add(((AIdentifier) argument.getIdentifier()).getId().getText());
+
+                // Check for default parameters
+                LinkedList<AAssignValue> value = argument.getAssignValue();
+                if (value.size() > 0 && defaultIndex == 0) {
+                    defaultIndex = expectedArguments.size();
+
+                } else if (value.size() == 0 && defaultIndex > 0) {
+                    printError(function, FirstVisitor.ERROR_TYPES.UNORDERED_PARAMS);
+                }
+            }
+        }
+
+        // Compare the arguments from the definition with the ones from the call, every parameter before the first default one is required
+        int required = defaultIndex > 0 ? defaultIndex - 1 : expectedArguments.size();
+        if (givenTypes.size() < required || givenTypes.size() > expectedArguments.size()) {
+            printError(node, FirstVisitor.ERROR_TYPES.WRONG_PARAMS);
+        }
+
+        // An imported function's body is checked with its own module's tables
+        if (isImported(function, node)) {
+            if (loader != null) {
+                loader.checkCall(function, givenTypes, checking);
+            }
+            return;
+        }
+
+        checkBody(function, givenTypes);
+    }
+
+    /**
+     * Checks an imported function's body for a call from another module
+     * @param function   the called function, belonging to this visitor's module
+     * @param givenTypes the types of the arguments given to the call
+     * @param checking   the functions whose bodies are being checked by the caller's visitors
+     */
+    void checkBody(AFunction function, List<FirstVisitor.VAR_TYPES> givenTypes, Set<AFunction> checking) {
+        this.checking = checking;
+        checkBody(function, givenTypes);
+    }
+
+    /**
+     * Binds the argument types to a function's parameters and checks the function's body
+     */
+    @SuppressWarnings("unchecked")
+    private void checkBody(AFunction function, List<FirstVisitor.VAR_TYPES> givenTypes) {
+        LinkedList<AArgument> arguments = function.getArgument();
+        int parameters = arguments.isEmpty() ? 0 : 1 + arguments.get(0).getMoreAssignments().size();
+
+        // Bind the given types, and the default values' types to the parameters left out
+        FirstVisitor.VAR_TYPES type;
+        if (givenTypes.size() > 0) {
+            LinkedList<AMoreAssignments> params = arguments.get(0).getMoreAssignments();
+            for (int i = 0; i < parameters; i++) {
+                if (i < givenTypes.size()) {
+                    // Get the argument's type from the function's call
+                    type = givenTypes.get(i);
+                    if (i == 0) {
+                        symbolTypes.put(symbols.symbol(arguments.get(0).getIdentifier()), type);
+                    } else {
+                        symbolTypes.put(symbols.symbol(params.get(i - 1).getIdentifier()), type);
+                    }
+
+                } else {  // Default values included
+                    // Use the default value to set the variable's type
+                    AMoreAssignments value = params.get(i - 1);
+                    type = argumentType(((LinkedList<AAssignValue>) value.getAssignValue()).get(0).getArithmetics());
+                    symbolTypes.put(symbols.symbol(params.get(i - 1).getIdentifier()), type);
+                }
+            }
+        } else if (arguments.size() > 0) {  // Only default parameters present
+            LinkedList<AAssignValue> firstValue = arguments.get(0).getAssignValue();
+            if (firstValue.size() > 0) {
+                type = argumentType(firstValue.get(0).getArithmetics());
+                symbolTypes.put(symbols.symbol(arguments.get(0).getIdentifier()), type);
+            }
+
+            LinkedList<AAssignValue> value;
+            for (AMoreAssignments param : (LinkedList<AMoreAssignments>) arguments.get(0).getMoreAssignments()) {
+                value = param.getAssignValue();
+                type = argumentType(value.get(0).getArithmetics());
+                symbolTypes.put(symbols.symbol(param.getIdentifier()), type);
+            }
+        }
+
+        // A recursive call is not checked again while its function's body is being checked
+        if (function.getStatement() != null && checking.add(function)) {
+            function.getStatement().apply(this);
+            checking.remove(function);
+        }
+    }
+
+    @Override
+    public void outANumberArithmetics(ANumberArithmetics node) {
+        variableTypes.put(node, FirstVisitor.getNumberSubtype(node.getNumber()));
+    }
+
+    @Override
+    public void outAStrlitArithmetics(AStrlitArithmetics node) {
+        variableTypes.put(node, FirstVisitor.VAR_TYPES.STRING);
+    }
+
+    @Override
+    public void outANoneArithmetics(ANoneArithmetics node) {
+        variableTypes.put(node, FirstVisitor.VAR_TYPES.NONE);
+    }
+
+    @Override
+    public void outALenArithmetics(ALenArithmetics node) {
+        variableTypes.put(node, FirstVisitor.VAR_TYPES.INTEGER);
+    }
+
+    @Override
+    public void outAMaxminArithmetics(AMaxminArithmetics node) {
+        variableTypes.put(node, FirstVisitor.VAR_TYPES.DOUBLE);
+    }
+
+    @Override
+    public void outAListArithmetics(AListArithmetics node) {
+        // Lists are not tracked by the variable types
+        variableTypes.put(node, FirstVisitor.VAR_TYPES.UNKNOWN);
+    }
+
+    @Override
+    public void outAListcallArithmetics(AListcallArithmetics node) {
+        variableTypes.put(node, FirstVisitor.VAR_TYPES.UNKNOWN);
+    }
+
+    @Override
+    public void outAArithmeticsArithmetics(AArithmeticsArithmetics node) {
+        // Parentheses have the type of their content
+        FirstVisitor.VAR_TYPES type = variableTypes.get(node.getArithmetics());
+        if (type != null) {
+            variableTypes.put(node, type);
+        }
+    }
+
+    @Override
+    public void outAIdentifierArithmetics(AIdentifierArithmetics node) {
+        // Same type as defined in the assignment statement
+        FirstVisitor.VAR_TYPES type = findVariableType(node.getIdentifier());
+        if (type != null) {
+            variableTypes.put(node, type);
+        }
+    }
+
+    @Override
+    public void outAExpArithmetics(AExpArithmetics node) {
+        // Find the class type of left and right children
+        Class<?> lClass = node.getL().getClass();
+        Class<?> rClass = node.getR().getClass();
+        FirstVisitor.VAR_TYPES lType = variableTypes.get(lClass.cast(node.getL()));
+        FirstVisitor.VAR_TYPES rType = variableTypes.get(rClass.cast(node.getR()));
+
+        // AIdentifierArithmetics inserts Aidentifier node and not itself
+        // Hence, the AIdentifier's type should be retrieved
+        if (node.getL() instanceof AIdentifierArithmetics) {
+            lType = findVariableType(((AIdentifierArithmetics) node.getL()).getIdentifier());
+        }
+
+        if (node.getR() instanceof AIdentifierArithmetics) {
+            rType = findVariableType(((AIdentifierArithmetics) node.getR()).getIdentifier());
+        }
+
+        // All children must return a number for the expression to be valid
+        if (rType == FirstVisitor.VAR_TYPES.NONE || lType == FirstVisitor.VAR_TYPES.NONE) {
+            printError(node, FirstVisitor.ERROR_TYPES.NONE_OPERATION);
+        } else if (lType == FirstVisitor.VAR_TYPES.UNKNOWN || rType == FirstVisitor.VAR_TYPES.UNKNOWN) {
+            variableTypes.put(node, FirstVisitor.VAR_TYPES.UNKNOWN);
+        } else if (lType == FirstVisitor.VAR_TYPES.INTEGER && rType == FirstVisitor.VAR_TYPES.INTEGER) {
+            variableTypes.put(node, FirstVisitor.VAR_TYPES.INTEGER);
+        } else if (FirstVisitor.isNumber(lType) && FirstVisitor.isNumber(rType)) {
+            variableTypes.put(node, FirstVisitor.VAR_TYPES.DOUBLE);
+        } else {
+            printError(node.getR(), FirstVisitor.ERROR_TYPES.TYPE_MISSMATCH);
+        }
+    }
+
+    @Override
+    public void outAPlusArithmetics(APlusArithmetics node) {
+        // Find the class type of left and right children
+        Class<?> lClass = node.getL().getClass();
+        Class<?> rClass = node.getR().getClass();
+        FirstVisitor.VAR_TYPES lType = variableTypes.get(lClass.cast(node.getL()));
+        FirstVisitor.VAR_TYPES rType = variableTypes.get(rClass.cast(node.getR()));
+
+        if (node.getL() instanceof AIdentifierArithmetics) {
+            lType = findVariableType(((AIdentifierArithmetics) node.getL()).getIdentifier());
+        }
+
+        if (node.getR() instanceof AIdentifierArithmetics) {
+            rType = findVariableType(((AIdentifierArithmetics) node.getR()).getIdentifier());
+        }
+
+        // The childrens' types must match
+        if (rType == FirstVisitor.VAR_TYPES.NONE || lType == FirstVisitor.VAR_TYPES.NONE) {
+            printError(node, FirstVisitor.ERROR_TYPES.NONE_OPERATION);
+        } else if (lType == FirstVisitor.VAR_TYPES.UNKNOWN || rType == FirstVisitor.VAR_TYPES.UNKNOWN) {
+            variableTypes.put(node, FirstVisitor.VAR_TYPES.UNKNOWN);
+        } else if (lType == rType) {
+            variableTypes.put(node, lType);
+        } else if (FirstVisitor.isNumber(lType) && FirstVisitor.isNumber(rType)) {
+            variableTypes.put(node, FirstVisitor.VAR_TYPES.DOUBLE);
+        } else {
+            printError(node, FirstVisitor.ERROR_TYPES.ADD_TYPE_MISSMATCH);
+        }
+    }
+
+    @Override
+    public void outAMinusArithmetics(AMinusArithmetics node) {
+        // Find the class type of left and right children
+        Class<?> lClass = node.getL().getClass();
+        Class<?> rClass = node.getR().getClass();
+        FirstVisitor.VAR_TYPES lType = variableTypes.get(lClass.cast(node.getL()));
+        FirstVisitor.VAR_TYPES rType = variableTypes.get(rClass.cast(node.getR()));
+
+        if (node.getL() instanceof AIdentifierArithmetics) {
+            lType = findVariableType(((AIdentifierArithmetics) node.getL()).getIdentifier());
+        }
+
+        if (node.getR() instanceof AIdentifierArithmetics) {
+            rType = findVariableType(((AIdentifierArithmetics) node.getR()).getIdentifier());
+        }
+
+        if (rType == FirstVisitor.VAR_TYPES.NONE || lType == FirstVisitor.VAR_TYPES.NONE) {
+            printError(node, FirstVisitor.ERROR_TYPES.NONE_OPERATION);
+        } else if (lType == FirstVisitor.VAR_TYPES.UNKNOWN || rType == FirstVisitor.VAR_TYPES.UNKNOWN) {
+			variableTypes.put(node, FirstVisitor.VAR_TYPES.UNKNOWN);
+        } else if (lType == FirstVisitor.VAR_TYPES.INTEGER && rType == FirstVisitor.VAR_TYPES.INTEGER) {
+            variableTypes.put(node, FirstVisitor.VAR_TYPES.INTEGER);
+        } else if (lType == FirstVisitor.VAR_TYPES.STRING || rType == FirstVisitor.VAR_TYPES.STRING) {
+            printError(node, FirstVisitor.ERROR_TYPES.MINUS_TYPE_MISSMATCH);
+        } else if (FirstVisitor.isNumber(lType) && FirstVisitor.isNumber(rType)) {
+            variableTypes.put(node, FirstVisitor.VAR_TYPES.DOUBLE);
+        } else {
+            printError(node, FirstVisitor.ERROR_TYPES.MINUS_TYPE_MISSMATCH);
+        }
+    }
+
+    @Override
+    public void outAMultArithmetics(AMultArithmetics node) {
+        // Same as outAExpArithmetics
+        // Find the class type of left and right children
+        Class<?> lClass = node.getL().getClass();
+        Class<?> rClass = node.getR().getClass();
+        FirstVisitor.VAR_TYPES lType = variableTypes.get(lClass.cast(node.getL()));
+        FirstVisitor.VAR_TYPES rType = variableTypes.get(rClass.cast(node.getR()));
+
+        if (node.getL() instanceof AIdentifierArithmetics) {
+            lType = findVariableType(((AIdentifierArithmetics) node.getL()).getIdentifier());
+        }
+
+        if (node.getR() instanceof AIdentifierArithmetics) {
+            rType = findVariableType(((AIdentifierArithmetics) node.getR()).getIdentifier());
+        }
+
+        // All children must return a number for the expression to be valid
+        if (rType == FirstVisitor.VAR_TYPES.NONE || lType == FirstVisitor.VAR_TYPES.NONE) {
+            printError(node, FirstVisitor.ERROR_TYPES.NONE_OPERATION);
+        } else if (lType == FirstVisitor.VAR_TYPES.UNKNOWN || rType == FirstVisitor.VAR_TYPES.UNKNOWN) {
+            variableTypes.put(node, FirstVisitor.VAR_TYPES.UNKNOWN);
+        } else if (lType == FirstVisitor.VAR_TYPES.INTEGER && rType == FirstVisitor.VAR_TYPES.INTEGER) {
+            variableTypes.put(node, FirstVisitor.VAR_TYPES.INTEGER);
+        } else if (lType == FirstVisitor.VAR_TYPES.INTEGER && rType == FirstVisitor.VAR_TYPES.STRING
+                || lType == FirstVisitor.VAR_TYPES.STRING && rType == FirstVisitor.VAR_TYPES.INTEGER) {
+            variableTypes.put(node, FirstVisitor.VAR_TYPES.STRING);
+        } else if (FirstVisitor.isNumber(lType) && FirstVisitor.isNumber(rType)) {
+            variableTypes.put(node, FirstVisitor.VAR_TYPES.DOUBLE);
+        } else {
+            printError(node, FirstVisitor.ERROR_TYPES.TYPE_MISSMATCH);
+        }
+    }
+
+    @Override
+    public void outADivArithmetics(ADivArithmetics node) {
+        // Same as outAExpArithmetics
+        // Find the class type of left and right children
+        Class<?> lClass = node.getL().getClass();
+        Class<?> rClass = node.getR().getClass();
+        FirstVisitor.VAR_TYPES lType = variableTypes.get(lClass.cast(node.getL()));
+        FirstVisitor.VAR_TYPES rType = variableTypes.get(rClass.cast(node.getR()));
+
+        if (node.getL() instanceof AIdentifierArithmetics) {
+            lType = findVariableType(((AIdentifierArithmetics) node.getL()).getIdentifier());
+        }
+
+        if (node.getR() instanceof AIdentifierArithmetics) {
+            rType = findVariableType(((AIdentifierArithmetics) node.getR()).getIdentifier());
+        }
+
+        if (rType == FirstVisitor.VAR_TYPES.NONE || lType == FirstVisitor.VAR_TYPES.NONE) {
+            printError(node, FirstVisitor.ERROR_TYPES.NONE_OPERATION);
+        } else if (lType == FirstVisitor.VAR_TYPES.UNKNOWN || rType == FirstVisitor.VAR_TYPES.UNKNOWN) {
+            variableTypes.put(node, FirstVisitor.VAR_TYPES.UNKNOWN);
+        } else if (FirstVisitor.isNumber(lType) && FirstVisitor.isNumber(rType)) {
+            variableTypes.put(node, FirstVisitor.VAR_TYPES.DOUBLE);
+        } else {
+            printError(node, FirstVisitor.ERROR_TYPES.TYPE_MISSMATCH);
+        }
+    }
+
+    @Override
+    public void outAFunctionArithmetics(AFunctionArithmetics node) {
+        // Find the function's type using it's identifier
+        PIdentifier identifier = ((AFunctionCall) node.getFunctionCall()).getIdentifier();
+        
+        // Find the function's definition, an imported one was already checked with its module
+        if (findVariableType(identifier) != FirstVisitor.VAR_TYPES.NONE && functions.containsKey(symbols.symbol(identifier))) {
+            AFunction function = (AFunction) (functions.get(symbols.symbol(identifier)).parent());
+            if (function.getStatement() instanceof AReturnStatement && !isImported(function, node)) {
+                FirstVisitor firstVisitor = new FirstVisitor(symbols, variables, functions, variableTypes, symbolTypes, flowTypes);
+                firstVisitor.setErrorHandler(errorHandler);
+                function.getStatement().apply(firstVisitor);
+
+                // The function call has the same type as the function's return statement
+                PArithmetics arithmetics = ((AReturnStatement) function.getStatement()).getArithmetics();
+                variableTypes.put(node, variableTypes.get(arithmetics));
+            }
+        }
+    }
+
+    // Helper methods
+
+    /**
+     * Reports a call to a function that has not been defined
+     * @param node       the call
+     * @param givenTypes the types of the arguments given to the call
+     */
+    protected void undefinedFunction(AFunctionCall node, List<FirstVisitor.VAR_TYPES> givenTypes) {
+        printError(node.getIdentifier(), FirstVisitor.ERROR_TYPES.UNDEFINED_FUNCTION);
+    }
+
+    /**
+     * Reports an error to this visitor's handler
+     * @param node the node causing the error
+     * @param type the error's type
+     */
+    protected void printError(Node node, FirstVisitor.ERROR_TYPES type) {
+        if (!(node instanceof AGoal)) {
+            errorHandler.accept(new Diagnostic(node, type, null));
+        }
+    }
+
+    /**
+     * Checks whether a function comes from another module than a call to it
+     * @param function the called function
+     * @param call     the call
+     * @return true if the function belongs to another tree
+     */
+    protected boolean isImported(AFunction function, Node call) {
+        return root(function) != root(call);
+    }
+
+    /**
+     * Given a variable's identifier, return its type
+     * (the type at the point of use when a flow analysis is available)
+     * @param identifier the variable's identifier
+     * @return the variable's type
+     */
+    private FirstVisitor.VAR_TYPES findVariableType(PIdentifier identifier) {
+        if (flowTypes != null) {
+            FirstVisitor.VAR_TYPES type = flowTypes.typeAt(identifier);
+            if (type != null) {
+                return type;
+            }
+        }
+
+        // Outside the functions, a variable keeps the type the FirstVisitor found where it is used
+        if (identifier.parent() instanceof AIdentifierArithmetics && !inFunction(identifier)) {
+            FirstVisitor.VAR_TYPES type = variableTypes.get(identifier.parent());
+            if (type != null) {
+                return type;
+            }
+        }
+
+        return symbolTypes.get(symbols.symbol(identifier));
+    }
+
+    /**
+     * Checks whether a node belongs to a function's definition
+     */
+    private static boolean inFunction(Node node) {
+        for (Node parent = node.parent(); parent != null; parent = parent.parent()) {
+            if (parent instanceof AFunction) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Finds the type of an argument bound to a parameter
+     * @param arithmetics the argument's expression
+     * @return the argument's type, unknown if it could not be inferred
+     */
+    private FirstVisitor.VAR_TYPES argumentType(PArithmetics arithmetics) {
+        FirstVisitor.VAR_TYPES type = variableTypes.get(arithmetics);
+        return type == null ? FirstVisitor.VAR_TYPES.UNKNOWN : type;
+    }
+
+    /**
+     * Finds the root of the tree containing a node
+     * @param node the given node
+     * @return the tree's root
+     */
+    protected static Node root(Node node) {
+        while (node.parent() != null) {
+            node = node.parent();
+        }
+
+        return node;
+    }
+
+    /**
+     * Sets the loader checking the bodies of the functions imported from other modules
+     * @param loader the loader of the program's modules
+     */
+    public void setModuleLoader(ModuleLoader loader) {
+        this.loader = loader;
+    }
+
+    /**
+     * Replaces what is done with this visitor's errors, as FirstVisitor.setErrorHandler does
+     * @param handler the new handler
+     */
+    public void setErrorHandler(Consumer<Diagnostic> handler) {
+        this.errorHandler = handler;
+    }
+
+    // Getters
+    public SymbolPool getSymbols() {
+        return symbols;
+    }
+
+    public Hashtable<Integer, Node> getVariables() {
+        return variables;
+    }
+
+    public Hashtable<Integer, Node> getFunctions() {
+        return functions;
+    }
+
+    public Hashtable<Node, FirstVisitor.VAR_TYPES> getVariableTypes() {
+        return variableTypes;
+    }
+
+    public Hashtable<Integer, FirstVisitor.VAR_TYPES> getSymbolTypes() {
+        return symbolTypes;
+    }
+
+    public FlowTypes getFlowTypes() {
+        return flowTypes;
+    }
+}
@@ -0,0 +1,78 @@
+package minipython.semantics;
+
+import java.io.*;
+import java.nio.file.*;
+
+import minipython.node.Token;
+
+/**
+ * Renders the source lines a diagnostic spans, underlining the range between
+ * its first and last token. The file is read line by line up to the last line
+ * shown, the lines before the first one are skipped without being kept, so the
+ * time grows with the error's position in the file and the memory does not.
+ */
+public class SourceSnippet {
+    // Longer ranges show their first lines only
+    private static final int MAX_LINES = 3;
+
+    /**
+     * Renders a diagnostic's lines
+     * @param file       the source file the diagnostic was found in
+     * @param diagnostic the diagnostic
+     * @return the numbered lines, each followed by its underline, or an empty string if the range is unknown
+     */
+    public static String render(Path file, Diagnostic diagnostic) throws IOException {
+        Token start = diagnostic.getStart();
+        Token end = diagnostic.getEnd();
+        if (start == null || end == null) {
+            return "";
+        }
+
+        int first = start.getLine();
+        int last = Math.min(end.getLine(), first + MAX_LINES - 1);
+        StringBuilder snippet = new StringBuilder();
+        try (BufferedReader in = Files.newBufferedReader(file)) {
+            String text;
+            for (int line = 1; line <= last && (text = in.readLine()) != null; line++) {
+                if (line < first) {
+                    continue;
+                }
+
+                // Columns are 1-based, a range continues to the end of the lines before its last one
+                int from = line == first ? start.getPos() - 1 : indentation(text);
+                int to = line == end.getLine() ? end.getPos() - 1 + end.getText().length() : text.length();
+                snippet.append(String.format("%5d | ", line)).append(text).append('\n');
+                snippet.append("      | ").append(underline(text, from, Math.max(from + 1, to))).append('\n');
+            }
+        }
+
+        return snippet.toString();
+    }
+
+    // Helper methods
+
+    private static int indentation(String text) {
+        int column = 0;
+        while (column < text.length() && Character.isWhitespace(text.charAt(column))) {
+            column++;
+        }
+
+        return column;
+    }
+
+    /**
+     * Builds the carets under a range, keeping the line's tabs so that they stay aligned
+     */
+    private static String underline(String text, int from, int to) {
+        StringBuilder underline = new StringBuilder();
+        for (int column = 0; column < to; column++) {
+            if (column >= from) {
+                underline.append('^');
+            } else {
+                underline.append(column < text.length() && text.charAt(column) == '\t' ? '\t' : ' ');
+            }
+        }
+
+        return underline.toString();
+    }
+}
@@ -0,0 +1,236 @@
+package minipython.semantics;
+
+import java.util.*;
+import java.util.function.Consumer;
+
+import minipython.analysis.DepthFirstAdapter;
+import minipython.node.*;
+import minipython.frontend.*;
+
+/**
+ * The StreamingChecker checks a program one top-level command at a time, so
+ * that the memory used grows with the program's function definitions and
+ * distinct variable names only, not with its top-level statements.
+ * Each command is checked by both visitors against the tables built from the
+ * commands before it and is then released: its expressions leave the type
+ * table and the variables it declares keep a detached copy of their
+ * identifier only. Function definitions are kept whole, along with the types
+ * of their expressions, as every call checks the body of its function again.
+ * A call to a function that is not defined yet is recorded as the function's
+ * symbol and the types of its arguments, once per distinct pair, and is
+ * checked after the last command, when every function is known.
+ *
+ * @param symbols pool holding the ids of the identifiers read
+ * @param loader  the loader of the imported modules
+ */
+public class StreamingChecker {
+    private final SymbolPool symbols;
+    private final ModuleLoader loader;
+    private final Hashtable<Integer, Node> variables;
+    private final Hashtable<Integer, Node> functions;
+    private final Hashtable<Node, FirstVisitor.VAR_TYPES> variableTypes;
+    private final Hashtable<Integer, FirstVisitor.VAR_TYPES> symbolTypes;
+
+    // The program's tree, holding the function definitions and the command being checked
+    private final Start program;
+    private final FirstVisitor firstVisitor;
+    private final SecondVisitor secondVisitor;
+    private final Set<ForwardCall> forwardCalls;
+
+    // The tree the current command was parsed into
+    private Start current;
+
+    public StreamingChecker(SymbolPool symbols, ModuleLoader loader) {
+        this.symbols = symbols;
+        this.loader = loader;
+        this.variables = new Hashtable<>();
+        this.functions = new Hashtable<>();
+        this.variableTypes = new Hashtable<>();
+        this.symbolTypes = new Hashtable<>();
+        this.program = new Start(new AGoal(new LinkedList<PCommands>()), new EOF());
+        this.firstVisitor = new FirstVisitor(symbols, variables, functions, variableTypes, symbolTypes);
+        this.secondVisitor = new ForwardCallVisitor();
+        this.secondVisitor.setModuleLoader(loader);
+        this.forwardCalls = new LinkedHashSet<>();
+    }
+
+    /**
+     * Replaces what is done with the errors found, in the program and in its modules
+     * @param handler the new handler
+     */
+    public void setErrorHandler(Consumer<Diagnostic> handler) {
+        firstVisitor.setErrorHandler(handler);
+        secondVisitor.setErrorHandler(handler);
+        if (loader != null) {
+            loader.setErrorHandler(handler);
+        }
+    }
+
+    /**
+     * Checks every command of a program, then the calls to the functions defined after them
+     * @param reader the program's commands
+     */
+    public void check(CommandReader reader) throws Exception {
+        while ((current = reader.next()) != null) {
+            check(current);
+        }
+        current = null;
+
+        checkForwardCalls();
+    }
+
+    /**
+     * Checks whether an error was found in the program itself rather than in an imported module
+     * @param diagnostic the error
+     * @return true if the error's node belongs to the program or to a copy kept from it
+     */
+    public boolean isInProgram(Diagnostic diagnostic) {
+        Node root = SecondVisitor.root(diagnostic.getNode());
+        return root == program || root == current || !(root instanceof Start);
+    }
+
+    // Helper methods
+
+    /**
+     * Checks one command and releases it, keeping the function definitions
+     */
+    @SuppressWarnings("unchecked")
+    private void check(Start tree) throws Exception {
+        // Declare the names imported by the command
+        if (loader != null) {
+            loader.importInto(tree, variables, functions, symbolTypes);
+        }
+
+        // Move the command into the program, so that its calls are checked as local ones
+        LinkedList<PCommands> goal = ((AGoal) program.getPGoal()).getCommands();
+        List<PCommands> commands = new ArrayList<>(((AGoal) tree.getPGoal()).getCommands());
+        goal.addAll(commands);
+
+        // Apply the visitors
+        int from = firstVisitor.getFunctionList().size();
+        for (PCommands command : commands) {
+            command.apply(firstVisitor);
+        }
+        firstVisitor.checkNewFunctions(from);
+        for (PCommands command : commands) {
+            command.apply(secondVisitor);
+        }
+
+        // Take the command out of the program again, only its functions stay
+        for (int i = 0; i < commands.size(); i++) {
+            goal.removeLast();
+        }
+        for (PCommands command : commands) {
+            if (command instanceof AFuncCommands) {
+                goal.add(command);
+            } else {
+                command.apply(new Release());
+            }
+        }
+    }
+
+    /**
+     * Checks the calls that were made before their function's definition
+     */
+    private void checkForwardCalls() {
+        for (ForwardCall call : forwardCalls) {
+            Node identifier = functions.get(call.function);
+            if (identifier == null) {
+                secondVisitor.printError(call.identifier, FirstVisitor.ERROR_TYPES.UNDEFINED_FUNCTION);
+            } else {
+                secondVisitor.checkCall(call.identifier, (AFunction) identifier.parent(), call.argumentTypes);
+            }
+        }
+        forwardCalls.clear();
+    }
+
+    /**
+     * The SecondVisitor of the program, recording the calls to functions
+     * that are not defined yet instead of reporting them
+     */
+    private class ForwardCallVisitor extends SecondVisitor {
+        private ForwardCallVisitor() {
+            super(symbols, variables, functions, variableTypes, symbolTypes);
+        }
+
+        @Override
+        protected void undefinedFunction(AFunctionCall node, List<FirstVisitor.VAR_TYPES> givenTypes) {
+            AIdentifier identifier = (AIdentifier) node.getIdentifier();
+            Integer name = symbols.callee(node);
+            forwardCalls.add(new ForwardCall(name, givenTypes, (AIdentifier) identifier.clone()));
+        }
+
+        @Override
+        protected boolean isImported(AFunction function, Node call) {
+            return root(function) != program;
+        }
+    }
+
+    /**
+     * Drops a released command's expressions from the type table and replaces
+     * the identifiers of the variables it declared with detached copies
+     */
+    private class Release extends DepthFirstAdapter {
+        @Override
+        public void defaultIn(Node node) {
+            variableTypes.remove(node);
+        }
+
+        @Override
+        public void inAIdentifier(AIdentifier node) {
+            Integer name = symbols.symbol(node);
+            if (variables.get(name) == node) {
+                variables.put(name, (Node) node.clone());
+            }
+        }
+    }
+
+    /**
+     * A call made before its function's definition, reduced to what checking it needs.
+     * Calls to the same function with the same argument types are checked once,
+     * the first one standing for them in errors.
+     */
+    private static class ForwardCall {
+        private final int function;
+        private final List<FirstVisitor.VAR_TYPES> argumentTypes;
+        private final AIdentifier identifier;
+
+        private ForwardCall(int function, List<FirstVisitor.VAR_TYPES> argumentTypes, AIdentifier identifier) {
+            this.function = function;
+            this.argumentTypes = argumentTypes;
+            this.identifier = identifier;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof ForwardCall)) {
+                return false;
+            }
+
+            ForwardCall call = (ForwardCall) o;
+            return function == call.function && argumentTypes.equals(call.argumentTypes);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * function + argumentTypes.hashCode();
+        }
+    }
+
+    // Getters
+    public SymbolPool getSymbols() {
+        return symbols;
+    }
+
+    public Hashtable<Integer, Node> getVariables() {
+        return variables;
+    }
+
+    public Hashtable<Integer, Node> getFunctions() {
+        return functions;
+    }
+
+    public Hashtable<Integer, FirstVisitor.VAR_TYPES> getSymbolTypes() {
+        return symbolTypes;
+    }
+}
@@ -0,0 +1,67 @@
+package minipython.semantics;
+
+import java.util.*;
+
+import minipython.analysis.DepthFirstAdapter;
+import minipython.node.*;
+
+/**
+ * The TailCalls analysis finds the self-recursive calls in tail position: the
+ * return statements of a function whose returned value is a call of that
+ * same function, possibly in parentheses. Nothing is left to evaluate after
+ * such a call, so a backend can replace it with a jump to the function's
+ * start once the parameters are bound to the call's arguments.
+ * Whether the call reaches the same definition (the number of arguments
+ * selects among definitions sharing a name) is left to the backend.
+ */
+public class TailCalls extends DepthFirstAdapter {
+    private final Hashtable<AFunction, List<AReturnStatement>> tailCalls;
+    private AFunction function;
+
+    public TailCalls() {
+        this.tailCalls = new Hashtable<>();
+    }
+
+    @Override
+    public void inAFunction(AFunction node) {
+        function = node;
+    }
+
+    @Override
+    public void outAFunction(AFunction node) {
+        function = null;
+    }
+
+    @Override
+    public void outAReturnStatement(AReturnStatement node) {
+        AFunctionCall call = getCall(node);
+        if (function != null && call != null && name(call.getIdentifier()).equals(name(function.getIdentifier()))) {
+            tailCalls.computeIfAbsent(function, k -> new ArrayList<>()).add(node);
+        }
+    }
+
+    /**
+     * Finds the call a return statement returns the value of
+     * @param node the return statement
+     * @return the call or null if the returned value is not a call
+     */
+    public static AFunctionCall getCall(AReturnStatement node) {
+        PArithmetics value = node.getArithmetics();
+        while (value instanceof AArithmeticsArithmetics) {
+            value = ((AArithmeticsArithmetics) value).getArithmetics();
+        }
+
+        return value instanceof AFunctionArithmetics ? (AFunctionCall) ((AFunctionArithmetics) value).getFunctionCall() : null;
+    }
+
+    // Helper methods
+
+    private static String name(PIdentifier identifier) {
+        return ((AIdentifier) identifier).getId().getText();
+    }
+
+    // Getters
+    public List<AReturnStatement> getTailCalls(AFunction function) {
+        return tailCalls.getOrDefault(function, Collections.emptyList());
+    }
+}
@@ -0,0 +1,77 @@
+package minipython.semantics;
+
+import java.io.*;
+import java.util.*;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import minipython.parser.Parser;
+import minipython.node.*;
+import minipython.frontend.*;
+
+class CallGraphTest {
+    private final SymbolPool symbols = new SymbolPool();
+
+    @Test
+    void findsSelfAndMutualRecursion() throws Exception {
+        CallGraph callGraph = callGraph(
+            "def f(n):\n    return g(n)\n"
+            + "def g(n):\n    return f(n)\n"
+            + "def h(n):\n    return h(n)\n"
+            + "def k(n):\n    return f(n)\n"
+            + "print k(1)\n");
+
+        Set<Set<Integer>> cycles = new HashSet<>(callGraph.getCycles());
+        assertEquals(Set.of(Set.of(id("f"), id("g")), Set.of(id("h"))), cycles);
+        assertTrue(callGraph.isRecursive(id("g")));
+        assertFalse(callGraph.isRecursive(id("k")));
+    }
+
+    @Test
+    void findsACycleThroughThousandsOfFunctions() throws Exception {
+        int count = 20000;
+        StringBuilder program = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            program.append("def f").append(i).append("(n):\n    return f").append((i + 1) % count).append("(n)\n");
+        }
+        program.append("def leaf(n):\n    return n\n");
+        CallGraph callGraph = callGraph(program.toString());
+
+        assertEquals(1, callGraph.getCycles().size());
+        assertEquals(count, callGraph.getCycles().get(0).size());
+        assertFalse(callGraph.isRecursive(id("leaf")));
+    }
+
+    @Test
+    void removesTheFunctionsNeverCalled() throws Exception {
+        Start ast = parse(
+            "def f(n):\n    return g(n)\n"
+            + "def g(n):\n    return n\n"
+            + "def unused(n):\n    return f(n)\n"
+            + "def main(n=1):\n    return f(n)\n"
+            + "print main()\n");
+        CallGraph callGraph = new CallGraph(symbols);
+        ast.apply(callGraph);
+
+        assertEquals(Set.of(id("main"), id("f"), id("g")), callGraph.getReachable());
+        assertEquals(1, callGraph.removeUnreachable(ast));
+        assertEquals(4, ((AGoal) ast.getPGoal()).getCommands().size());
+    }
+
+    private CallGraph callGraph(String program) throws Exception {
+        CallGraph callGraph = new CallGraph(symbols);
+        parse(program).apply(callGraph);
+
+        return callGraph;
+    }
+
+    private Start parse(String program) throws Exception {
+        return new Parser(new InterningLexer(new PushbackReader(new StringReader(program), 1024), symbols)).parse();
+    }
+
+    private Integer id(String name) {
+        return symbols.intern(name);
+    }
+}
@@ -0,0 +1,100 @@
+package minipython.semantics;
+
+import java.io.*;
+import java.util.*;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import minipython.parser.Parser;
+import minipython.node.*;
+import minipython.frontend.*;
+
+class InlinerTest {
+    // The variable changes type after the call, as in examples/example8.py
+    private static final String RETYPED_ARGUMENT =
+        "def add(a, b):\n    return a + b\nx = 1\nprint add(x, 2)\nx = \"s\"\nprint x\n";
+
+    private final SymbolPool symbols = new SymbolPool();
+    private final List<Diagnostic> diagnostics = new ArrayList<>();
+    private final Hashtable<Node, FirstVisitor.VAR_TYPES> variableTypes = new Hashtable<>();
+
+    @Test
+    void keepsTheCallsTypeWithoutFlowTypes() throws Exception {
+        Start ast = parse(RETYPED_ARGUMENT);
+        int inlined = inline(ast, false);
+
+        assertEquals(List.of(), diagnostics);
+        assertEquals(1, inlined);
+        PArithmetics printed = printed(ast, 0);
+        assertTrue(printed instanceof APlusArithmetics);
+        assertEquals(FirstVisitor.VAR_TYPES.INTEGER, variableTypes.get(printed));
+    }
+
+    @Test
+    void typesTheExpressionAgainWithFlowTypes() throws Exception {
+        Start ast = parse(RETYPED_ARGUMENT);
+        int inlined = inline(ast, true);
+
+        assertEquals(List.of(), diagnostics);
+        assertEquals(1, inlined);
+        assertEquals(FirstVisitor.VAR_TYPES.INTEGER, variableTypes.get(printed(ast, 0)));
+    }
+
+    @Test
+    void keepsACallWhoseArgumentIsNotAName() throws Exception {
+        Start ast = parse("def add(a, b):\n    return a + b\nprint add(1 + 2, 3)\n");
+
+        assertEquals(0, inline(ast, false));
+        assertTrue(printed(ast, 0) instanceof AFunctionArithmetics);
+    }
+
+    /**
+     * Checks a program as the command line does and inlines its calls
+     * @return the number of calls inlined
+     */
+    private int inline(Start ast, boolean flow) {
+        CallGraph callGraph = new CallGraph(symbols);
+        ast.apply(callGraph);
+        FlowTypes flowTypes = null;
+        if (flow) {
+            flowTypes = new FlowTypes(symbols, variableTypes);
+            flowTypes.analyze(ast);
+        }
+
+        FirstVisitor firstVisitor = new FirstVisitor(symbols, new Hashtable<>(), new Hashtable<>(),
+                variableTypes, new Hashtable<>(), flowTypes);
+        firstVisitor.setErrorHandler(diagnostics::add);
+        ast.apply(firstVisitor);
+        SecondVisitor secondVisitor = new SecondVisitor(symbols, firstVisitor.getVariables(), firstVisitor.getFunctions(),
+                variableTypes, firstVisitor.getSymbolTypes(), flowTypes);
+        secondVisitor.setErrorHandler(diagnostics::add);
+        ast.apply(secondVisitor);
+        assertEquals(List.of(), diagnostics);
+
+        Inliner inliner = new Inliner(symbols, callGraph, firstVisitor);
+        ast.apply(inliner);
+
+        return inliner.getInlined();
+    }
+
+    /**
+     * Finds the expression printed by the given print statement of the program
+     */
+    @SuppressWarnings("unchecked")
+    private static PArithmetics printed(Start ast, int index) {
+        List<APrintStatement> prints = new ArrayList<>();
+        for (PCommands command : (LinkedList<PCommands>) ((AGoal) ast.getPGoal()).getCommands()) {
+            if (command instanceof AStatCommands && ((AStatCommands) command).getStatement() instanceof APrintStatement) {
+                prints.add((APrintStatement) ((AStatCommands) command).getStatement());
+            }
+        }
+
+        return prints.get(index).getArithmetics();
+    }
+
+    private Start parse(String program) throws Exception {
+        return new Parser(new InterningLexer(new PushbackReader(new StringReader(program), 1024), symbols)).parse();
+    }
+}
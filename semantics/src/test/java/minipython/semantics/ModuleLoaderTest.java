@@ -0,0 +1,109 @@
+package minipython.semantics;
+
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import minipython.parser.Parser;
+import minipython.node.*;
+import minipython.frontend.*;
+
+class ModuleLoaderTest {
+    private final SymbolPool symbols = new SymbolPool();
+    private final List<Diagnostic> diagnostics = new ArrayList<>();
+    private Path directory;
+
+    @BeforeEach
+    void writeModules() throws IOException {
+        // a and b import each other, pkg.c imports a name from a
+        directory = Files.createTempDirectory("modules");
+        Files.createDirectory(directory.resolve("pkg"));
+        Files.writeString(directory.resolve("a.py"), "import b\ndef f(x):\n    return x + 1\n");
+        Files.writeString(directory.resolve("b.py"), "import a\ndef g(y):\n    return y * 2\n");
+        Files.writeString(directory.resolve("pkg/c.py"), "from a import f\ndef h(z):\n    return f(z)\n");
+    }
+
+    @AfterEach
+    void deleteModules() throws IOException {
+        try (java.util.stream.Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+        }
+    }
+
+    @Test
+    void loadsModulesImportingEachOther() throws Exception {
+        Hashtable<Integer, Node> functions = check("import a\nimport pkg.c as c\nprint a.f(1), c.h(2)\n");
+
+        assertEquals(List.of(), messages());
+        assertTrue(functions.containsKey(symbols.intern("a.f")));
+        assertTrue(functions.containsKey(symbols.intern("c.h")));
+    }
+
+    @Test
+    void checksEachCallWithItsArgumentTypes() throws Exception {
+        Start program = parse("import a\nprint a.f(\"s\")\nprint a.f(1)\nprint a.f(2.5)\n");
+        check(program);
+
+        assertEquals(List.of("Error[3]: Variable type missmatch in addition."), messages());
+        assertFalse(diagnostics.get(0).isIn(program));
+    }
+
+    @Test
+    void reportsAMissingModule() throws Exception {
+        check("import a\nimport missing\n");
+
+        assertEquals(List.of("Error[2]: No module named 'missing'."), messages());
+    }
+
+    private Hashtable<Integer, Node> check(String program) throws Exception {
+        return check(parse(program));
+    }
+
+    /**
+     * Checks a program as the command line does, with the temporary directory as the search path
+     * @return the program's functions
+     */
+    private Hashtable<Integer, Node> check(Start ast) throws Exception {
+        Hashtable<Integer, Node> variables = new Hashtable<>();
+        Hashtable<Integer, Node> functions = new Hashtable<>();
+        Hashtable<Integer, FirstVisitor.VAR_TYPES> symbolTypes = new Hashtable<>();
+        ModuleLoader loader = new ModuleLoader(symbols, List.of(directory));
+        loader.setErrorHandler(this::report);
+        loader.importInto(ast, variables, functions, symbolTypes);
+
+        FirstVisitor firstVisitor = new FirstVisitor(symbols, variables, functions, new Hashtable<>(), symbolTypes);
+        firstVisitor.setErrorHandler(this::report);
+        ast.apply(firstVisitor);
+        SecondVisitor secondVisitor = new SecondVisitor(symbols, variables, functions,
+                firstVisitor.getVariableTypes(), symbolTypes);
+        secondVisitor.setModuleLoader(loader);
+        secondVisitor.setErrorHandler(this::report);
+        ast.apply(secondVisitor);
+
+        return functions;
+    }
+
+    // The modules are checked on other threads
+    private synchronized void report(Diagnostic diagnostic) {
+        diagnostics.add(diagnostic);
+    }
+
+    private synchronized List<String> messages() {
+        List<String> messages = new ArrayList<>();
+        for (Diagnostic diagnostic : diagnostics) {
+            messages.add(diagnostic.getMessage());
+        }
+
+        return messages;
+    }
+
+    private Start parse(String program) throws Exception {
+        return new Parser(new InterningLexer(new PushbackReader(new StringReader(program), 1024), symbols)).parse();
+    }
+}